@@ -1,4 +1,4 @@
-// Create: src/main/resources/db/migration/V001__Initial_schema.sql
+-- Create: src/main/resources/db/migration/V001__Initial_schema.sql
 -- Create users table
 CREATE TABLE IF NOT EXISTS users (
     id SERIAL PRIMARY KEY,
@@ -23,13 +23,27 @@ CREATE TABLE IF NOT EXISTS policies (
     action VARCHAR(50) DEFAULT '*',
     active BOOLEAN DEFAULT true,
     priority INTEGER DEFAULT 0,
+    effect VARCHAR(10),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
--- Create audit_logs table
+-- Policies created before effects were stored: derive the effect from the naming convention
+ALTER TABLE policies ADD COLUMN IF NOT EXISTS effect VARCHAR(10);
+UPDATE policies SET effect = CASE
+    WHEN lower(name) LIKE '%permit%' OR lower(name) LIKE '%allow%' OR lower(name) LIKE '%access%' THEN 'PERMIT'
+    WHEN lower(name) LIKE '%deny%' OR lower(name) LIKE '%block%' THEN 'DENY'
+    ELSE 'PERMIT'
+END
+WHERE effect IS NULL;
+
+-- Create audit_logs table, range-partitioned by month on timestamp so retention drops whole
+-- partitions instead of deleting rows. The application (AuditPartitionMaintainer) creates upcoming
+-- months and drops expired ones; rows outside every monthly partition land in audit_logs_default.
+-- This only takes effect on a fresh database: an existing unpartitioned audit_logs is left as it is
+-- and must be converted with scripts/migrate-audit-logs-partitioned.sql.
 CREATE TABLE IF NOT EXISTS audit_logs (
-    id SERIAL PRIMARY KEY,
+    id BIGSERIAL,
     user_id VARCHAR(50),
     resource VARCHAR(100),
     action VARCHAR(50),
@@ -38,8 +52,36 @@ CREATE TABLE IF NOT EXISTS audit_logs (
     client_ip VARCHAR(45),
     user_agent TEXT,
     request_context TEXT,
-    timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    evaluation_time_ms BIGINT
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    evaluation_time_ms BIGINT,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE IF NOT EXISTS audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+-- Partitions for the current and the next two months
+DO $$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', CURRENT_TIMESTAMP);
+BEGIN
+    FOR i IN 0..2 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                       'audit_logs_' || to_char(month_start + make_interval(months => i), 'YYYY_MM'),
+                       month_start + make_interval(months => i),
+                       month_start + make_interval(months => i + 1));
+    END LOOP;
+END $$;
+
+-- Create audit_rollups table: per-minute counts of decisions served from the decision cache.
+-- A bucket may span several rows (one per node and flush), so always SUM(hit_count).
+CREATE TABLE IF NOT EXISTS audit_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    bucket_start TIMESTAMP NOT NULL,
+    user_id VARCHAR(50),
+    resource VARCHAR(100),
+    action VARCHAR(50),
+    decision VARCHAR(10),
+    hit_count BIGINT NOT NULL
 );
 
 -- Create user_attributes table
@@ -55,5 +97,9 @@ CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_policies_name ON policies(name);
 CREATE INDEX IF NOT EXISTS idx_policies_resource_action ON policies(resource, action);
-CREATE INDEX IF NOT EXISTS idx_audit_logs_user_id ON audit_logs(user_id);
-CREATE INDEX IF NOT EXISTS idx_audit_logs_timestamp ON audit_logs(timestamp);
+-- Audit queries and exports page by (timestamp, id), optionally per user or resource; indexes cascade to partitions
+CREATE INDEX IF NOT EXISTS idx_audit_logs_user_id_timestamp ON audit_logs(user_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_resource_timestamp ON audit_logs(resource, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_timestamp ON audit_logs(timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_audit_rollups_user_bucket ON audit_rollups(user_id, bucket_start);
+CREATE INDEX IF NOT EXISTS idx_audit_rollups_bucket ON audit_rollups(bucket_start);
@@ -0,0 +1,70 @@
+-- One-off conversion of an existing, unpartitioned audit_logs table to the monthly partitioned layout
+-- that init-db.sql creates. init-db.sql only runs against an empty database (docker-entrypoint-initdb.d),
+-- and its CREATE TABLE IF NOT EXISTS leaves an older audit_logs untouched, so databases created before
+-- partitioning keep the plain table until this script is run:
+--   psql -U gatekeeper -d gatekeeper -f scripts/migrate-audit-logs-partitioned.sql
+-- Every row is copied under an exclusive lock, so audit writes wait until it commits; run it in a
+-- maintenance window. AuditPartitionMaintainer skips maintenance until the table is partitioned.
+BEGIN;
+
+LOCK TABLE audit_logs IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE audit_logs RENAME TO audit_logs_unpartitioned;
+ALTER TABLE audit_logs_unpartitioned RENAME CONSTRAINT audit_logs_pkey TO audit_logs_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_audit_logs_user_id;
+DROP INDEX IF EXISTS idx_audit_logs_user_id_timestamp;
+DROP INDEX IF EXISTS idx_audit_logs_resource_timestamp;
+DROP INDEX IF EXISTS idx_audit_logs_timestamp;
+
+-- Keep the id sequence, so ids continue where they were; detach it so dropping the old table keeps it
+ALTER SEQUENCE audit_logs_id_seq OWNED BY NONE;
+ALTER SEQUENCE audit_logs_id_seq AS BIGINT;
+
+CREATE TABLE audit_logs (
+    id BIGINT NOT NULL DEFAULT nextval('audit_logs_id_seq'),
+    user_id VARCHAR(50),
+    resource VARCHAR(100),
+    action VARCHAR(50),
+    decision VARCHAR(10),
+    reason TEXT,
+    client_ip VARCHAR(45),
+    user_agent TEXT,
+    request_context TEXT,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    evaluation_time_ms BIGINT,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+-- A partition for every month from the oldest record to two months ahead, so existing rows can be
+-- dropped by retention and nothing lands in the default partition (which would block creating a month)
+DO $$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', COALESCE(
+            (SELECT min(timestamp) FROM audit_logs_unpartitioned), CURRENT_TIMESTAMP));
+BEGIN
+    WHILE month_start < date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '3 months' LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                       'audit_logs_' || to_char(month_start, 'YYYY_MM'),
+                       month_start,
+                       month_start + INTERVAL '1 month');
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+-- The old column allowed NULL timestamps; such rows are dated 1970-01-01 and land in the default partition
+INSERT INTO audit_logs (id, user_id, resource, action, decision, reason, client_ip, user_agent,
+                        request_context, timestamp, evaluation_time_ms)
+SELECT id, user_id, resource, action, decision, reason, client_ip, user_agent,
+       request_context, COALESCE(timestamp, TIMESTAMP '1970-01-01'), evaluation_time_ms
+FROM audit_logs_unpartitioned;
+
+DROP TABLE audit_logs_unpartitioned;
+ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id;
+
+CREATE INDEX IF NOT EXISTS idx_audit_logs_user_id_timestamp ON audit_logs(user_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_resource_timestamp ON audit_logs(resource, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_timestamp ON audit_logs(timestamp, id);
+
+COMMIT;
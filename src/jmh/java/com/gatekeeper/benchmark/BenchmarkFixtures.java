@@ -0,0 +1,112 @@
+package com.gatekeeper.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+import com.gatekeeper.rego.EmbeddedRegoEngine;
+import com.gatekeeper.repository.PolicyRepository;
+import com.gatekeeper.util.OpaClient;
+import com.gatekeeper.util.PolicyEvaluator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.*;
+
+// Deterministic policy sets and requests shared by the benchmarks
+public final class BenchmarkFixtures {
+
+    private static final String[] RULES = {
+            "business_hours_access",
+            "department_access",
+            "office_location_access",
+            "input.user.role == \"admin\"",
+            "sensitive_data requires admin AND office_location_access",
+            "allow if { input.action == \"read\" }"
+    };
+
+    private static final String[] ACTIONS = {"read", "write", "delete", "approve"};
+
+    public static final String KEY_SECRET = "benchmark-decision-key-secret";
+
+    private BenchmarkFixtures() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+
+    // Custom engine only; the OPA client is never called while gatekeeper.opa.enabled is off
+    public static PolicyEvaluator policyEvaluator() {
+        OpaClient opaClient = new OpaClient(objectMapper(), "http://localhost:8181", Duration.ofMillis(250), Duration.ofMillis(500));
+        EmbeddedRegoEngine embeddedRegoEngine = new EmbeddedRegoEngine(objectMapper(), new String[0]);
+        return new PolicyEvaluator(opaClient, embeddedRegoEngine, new SimpleMeterRegistry());
+    }
+
+    // Roughly one policy in ten is a '*' policy; the rest are spread over resourceCount resources
+    public static List<Policy> policies(int count, int resourceCount) {
+        Random random = new Random(42);
+        List<Policy> policies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Policy policy = new Policy();
+            policy.setId((long) i + 1);
+            policy.setName((i % 7 == 0 ? "deny-" : "permit-") + i);
+            policy.setEffect(i % 7 == 0 ? PolicyEffect.DENY : PolicyEffect.PERMIT);
+            policy.setRegoRule(RULES[random.nextInt(RULES.length)]);
+            policy.setResource(random.nextInt(10) == 0 ? "*" : resource(random.nextInt(resourceCount)));
+            policy.setAction(random.nextInt(3) == 0 ? "*" : ACTIONS[random.nextInt(ACTIONS.length)]);
+            policy.setPriority(random.nextInt(1000));
+            policies.add(policy);
+        }
+        policies.sort(Comparator.comparingInt(Policy::getPriority).reversed());
+        return policies;
+    }
+
+    public static String resource(int i) {
+        return "resource-" + i;
+    }
+
+    public static String action(int i) {
+        return ACTIONS[i % ACTIONS.length];
+    }
+
+    public static AccessRequest request(String resource, String action) {
+        Map<String, Object> userAttrs = new HashMap<>();
+        userAttrs.put("role", "user");
+        userAttrs.put("department", "engineering");
+        userAttrs.put("location", "office");
+        userAttrs.put("clearance", "standard");
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("department", "engineering");
+        context.put("sensitivity", "low");
+
+        AccessRequest request = new AccessRequest();
+        request.setUserId("bench-user");
+        request.setResource(resource);
+        request.setAction(action);
+        request.setClientIp("10.0.0.1");
+        request.setUserAttributes(userAttrs);
+        request.setContext(context);
+        return request;
+    }
+
+    // Only the query used to build the policy index is backed; everything else is unsupported
+    public static PolicyRepository policyRepository(List<Policy> policies) {
+        return (PolicyRepository) Proxy.newProxyInstance(
+                PolicyRepository.class.getClassLoader(),
+                new Class<?>[]{PolicyRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findActivePoliciesByPriority" -> new ArrayList<>(policies);
+                    case "findAll", "findByActiveTrue" -> new ArrayList<>(policies);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryPolicyRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
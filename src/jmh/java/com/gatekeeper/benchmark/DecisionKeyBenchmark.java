@@ -0,0 +1,54 @@
+package com.gatekeeper.benchmark;
+
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.util.DecisionKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// Decision cache key per request: the keyed 128-bit fingerprint against the former
+// String.format + Objects.hash key. Run with -prof gc to compare gc.alloc.rate.norm.
+// Key correctness (collisions, map order) is covered by DecisionKeyTest.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionKeyBenchmark {
+
+    private static final long K0 = 0x0706050403020100L;
+    private static final long K1 = 0x0f0e0d0c0b0a0908L;
+
+    private AccessRequest request;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkFixtures.request(BenchmarkFixtures.resource(1), "read");
+        request.setContext(new HashMap<>(Map.of("department", "engineering", "ip", "10.0.0.12", "mfa", true)));
+    }
+
+    @Benchmark
+    public DecisionKey fingerprint() {
+        return DecisionKey.of(7, request, K0, K1);
+    }
+
+    @Benchmark
+    public byte[] fingerprintRedisKey() {
+        return DecisionKey.of(7, request, K0, K1).toBytes();
+    }
+
+    // Baseline: the key AuthorizationService built before
+    @Benchmark
+    public String formattedKey() {
+        return String.format("access:%d:%s:%s:%s:%s",
+                7L,
+                request.getUserId(),
+                request.getResource(),
+                request.getAction(),
+                Objects.hash(request.getContext(), request.getUserAttributes()));
+    }
+}
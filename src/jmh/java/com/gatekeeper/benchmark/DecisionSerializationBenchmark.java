@@ -0,0 +1,81 @@
+package com.gatekeeper.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatekeeper.config.RedisConfig;
+import com.gatekeeper.model.AccessDecision;
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.ReasonCode;
+import com.gatekeeper.service.DecisionCodec;
+import com.gatekeeper.service.PolicyService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost of putting a decision into Redis and getting it back out: the former JSON serializer path
+// against DecisionCodec. Payload sizes are printed once per fork.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionSerializationBenchmark {
+
+    private RedisSerializer<Object> serializer;
+    private ObjectMapper objectMapper;
+    private DecisionCodec decisionCodec;
+    private AccessDecision decision;
+    private byte[] encodedJson;
+    private byte[] encodedBinary;
+
+    @Setup
+    public void setUp() {
+        serializer = RedisConfig.valueSerializer();
+        objectMapper = BenchmarkFixtures.objectMapper();
+
+        List<Policy> policies = BenchmarkFixtures.policies(100, 50);
+        PolicyService policyService = new PolicyService(BenchmarkFixtures.policyRepository(policies), null,
+                BenchmarkFixtures.policyEvaluator(), InMemoryRedisTemplate.json(), BenchmarkFixtures.objectMapper());
+        policyService.reloadPolicyIndex();
+        decisionCodec = new DecisionCodec(policyService);
+
+        List<Policy> applied = policies.subList(0, 3);
+        decision = new AccessDecision();
+        decision.setAllowed(true);
+        decision.setDecision("PERMIT");
+        decision.setReasonCode(ReasonCode.POLICY_PERMIT);
+        decision.setReason(ReasonCode.POLICY_PERMIT.describe(null));
+        decision.setAppliedPolicies(applied.stream().map(Policy::getName).toList());
+        decision.setAppliedPolicyIds(applied.stream().map(Policy::getId).toList());
+        decision.setEvaluatedAt(LocalDateTime.now());
+        decision.setEvaluationTimeMs(3);
+
+        encodedJson = serializer.serialize(decision);
+        encodedBinary = decisionCodec.encode(decision);
+        System.out.printf("%nPayload bytes: json=%d binary=%d%n", encodedJson.length, encodedBinary.length);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return serializer.serialize(decision);
+    }
+
+    // Mirrors a former cache hit: deserialize, then convertValue back into an AccessDecision
+    @Benchmark
+    public AccessDecision deserializeJson() {
+        return objectMapper.convertValue(serializer.deserialize(encodedJson), AccessDecision.class);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return decisionCodec.encode(decision);
+    }
+
+    @Benchmark
+    public AccessDecision decodeBinary() {
+        return decisionCodec.decode(encodedBinary);
+    }
+}
@@ -0,0 +1,57 @@
+package com.gatekeeper.benchmark;
+
+import com.gatekeeper.rego.EmbeddedRegoEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// In-process evaluation of docker/opa-policies/gatekeeper.rego, the cost that replaces an OPA round trip
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbeddedRegoBenchmark {
+
+    private static final String PACKAGE = "gatekeeper.authz";
+
+    private EmbeddedRegoEngine engine;
+    private Map<String, Object> adminInput;
+    private Map<String, Object> deniedInput;
+
+    @Setup
+    public void setUp() {
+        engine = new EmbeddedRegoEngine(BenchmarkFixtures.objectMapper(),
+                new String[]{"file:docker/opa-policies/*.rego"});
+        if (!engine.hasPackage(PACKAGE)) {
+            throw new IllegalStateException("Run from the project root so the Rego bundle can be found");
+        }
+        adminInput = input(Map.of("role", "admin"), "reports", "write");
+        deniedInput = input(Map.of("role", "user", "department", "sales"), "sensitive-reports", "write");
+    }
+
+    // First allow body matches
+    @Benchmark
+    public Boolean adminAllowed() {
+        return engine.allow(PACKAGE, adminInput);
+    }
+
+    // Every allow body is tried before the default applies
+    @Benchmark
+    public Boolean defaultDeny() {
+        return engine.allow(PACKAGE, deniedInput);
+    }
+
+    private static Map<String, Object> input(Map<String, Object> user, String resource, String action) {
+        Map<String, Object> input = new HashMap<>();
+        input.put("user", user);
+        input.put("resource", resource);
+        input.put("action", action);
+        input.put("timestamp", "2024-01-01T10:00:00");
+        input.put("context", Map.of("department", "engineering"));
+        return input;
+    }
+}
@@ -0,0 +1,103 @@
+package com.gatekeeper.benchmark;
+
+import com.gatekeeper.config.RedisConfig;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Map-backed stand-in for Redis. Values go through the production serializer so the
+// encode/decode cost of a real round trip is still paid, only the network hop is missing.
+// Keys are String or byte[], matching the two templates in RedisConfig.
+public class InMemoryRedisTemplate<K, V> extends RedisTemplate<K, V> {
+
+    private final Map<Object, byte[]> store = new ConcurrentHashMap<>();
+    private final Map<Object, Long> counters = new ConcurrentHashMap<>();
+    private final RedisSerializer<V> serializer;
+    private final ValueOperations<K, V> valueOperations = createValueOperations();
+
+    public InMemoryRedisTemplate(RedisSerializer<V> serializer) {
+        this.serializer = serializer;
+    }
+
+    // Template with the JSON value serializer of the shared redisTemplate bean
+    public static <K> InMemoryRedisTemplate<K, Object> json() {
+        return new InMemoryRedisTemplate<>(RedisConfig.valueSerializer());
+    }
+
+    // Template for values that are already bytes, like decisionRedisTemplate
+    public static InMemoryRedisTemplate<byte[], byte[]> binary() {
+        return new InMemoryRedisTemplate<>(RedisSerializer.byteArray());
+    }
+
+    @Override
+    public ValueOperations<K, V> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    public List<Object> executePipelined(SessionCallback<?> session) {
+        session.execute(this);
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Boolean delete(K key) {
+        return store.remove(storeKey(key)) != null;
+    }
+
+    @Override
+    public Long delete(Collection<K> keys) {
+        long removed = keys.stream().filter(key -> store.remove(storeKey(key)) != null).count();
+        return removed;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public void clear() {
+        store.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueOperations<K, V> createValueOperations() {
+        return (ValueOperations<K, V>) Proxy.newProxyInstance(
+                ValueOperations.class.getClassLoader(),
+                new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "get" -> read(args[0]);
+                    case "set" -> {
+                        store.put(storeKey(args[0]), serializer.serialize((V) args[1]));
+                        yield null;
+                    }
+                    case "increment" -> counters.merge(storeKey(args[0]), args.length > 1 ? (Long) args[1] : 1L, Long::sum);
+                    case "multiGet" -> {
+                        List<Object> values = new ArrayList<>();
+                        for (Object key : (Collection<?>) args[0]) {
+                            values.add(read(key));
+                        }
+                        yield values;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryValueOperations";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // byte[] has identity equality; wrap it so equal keys find the same entry
+    private static Object storeKey(Object key) {
+        return key instanceof byte[] bytes ? ByteBuffer.wrap(bytes) : key;
+    }
+
+    private V read(Object key) {
+        byte[] bytes = store.get(storeKey(key));
+        return bytes != null ? serializer.deserialize(bytes) : null;
+    }
+}
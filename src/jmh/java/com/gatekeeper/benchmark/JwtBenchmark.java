@@ -0,0 +1,47 @@
+package com.gatekeeper.benchmark;
+
+import com.gatekeeper.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Key;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-request token handling in JwtAuthenticationFilter: cached verification vs. a full HS512 parse
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    // HS512 needs a key of at least 512 bits
+    private static final String SECRET = "benchmarkSigningSecretThatIsComfortablyLongerThanSixtyFourBytesForHS512";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(new SimpleMeterRegistry(), SECRET, 86_400_000L, 10_000);
+        token = jwtUtil.generateToken("alice", Map.of("role", "user", "department", "engineering"));
+        jwtUtil.verifyToken(token);
+    }
+
+    @Benchmark
+    public Claims verifyCached() {
+        return jwtUtil.verifyToken(token);
+    }
+
+    // Baseline: what each of the three lookups per request cost before, key and parser built every time
+    @Benchmark
+    public Claims parseUncached() {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,81 @@
+package com.gatekeeper.benchmark;
+
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.util.PolicyEvaluator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Custom-engine evaluation of a whole applicable policy set; divide by policyCount for the per-policy cost
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyEvaluatorBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int policyCount;
+
+    private List<Policy> policies;
+    private PolicyEvaluator policyEvaluator;
+    private AccessRequest request;
+
+    @Setup
+    public void setUp() {
+        policies = BenchmarkFixtures.policies(policyCount, 50);
+        policyEvaluator = BenchmarkFixtures.policyEvaluator();
+        policies.forEach(policyEvaluator::compile);
+        request = BenchmarkFixtures.request(BenchmarkFixtures.resource(1), "read");
+    }
+
+    @Benchmark
+    public void compiledRules(Blackhole blackhole) {
+        for (Policy policy : policies) {
+            blackhole.consume(policyEvaluator.evaluate(policy, request));
+        }
+    }
+
+    // Baseline: the rule-text scan the custom engine performed before rules were compiled
+    @Benchmark
+    public void ruleTextScan(Blackhole blackhole) {
+        for (Policy policy : policies) {
+            blackhole.consume(scanRuleText(policy, request));
+        }
+    }
+
+    private static boolean scanRuleText(Policy policy, AccessRequest request) {
+        String rule = policy.getRegoRule().toLowerCase();
+        Map<String, Object> userAttrs = request.getUserAttributes();
+
+        if (rule.contains("admin") && "admin".equals(userAttrs.get("role"))) {
+            return true;
+        }
+        if (rule.contains("business_hours")) {
+            LocalTime now = LocalTime.now();
+            if (now.isBefore(LocalTime.of(9, 0)) || now.isAfter(LocalTime.of(17, 0))) {
+                return false;
+            }
+        }
+        if (rule.contains("office_location") && !"office".equals(userAttrs.get("location"))) {
+            return false;
+        }
+        if ((rule.contains("sensitive") || request.getResource().contains("sensitive"))
+                && !"admin".equals(userAttrs.get("role"))) {
+            return false;
+        }
+        if (rule.contains("department")) {
+            String contextDept = (String) request.getContext().get("department");
+            if (contextDept != null && !contextDept.equals(userAttrs.get("department"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.gatekeeper.benchmark;
+
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.util.PolicyIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Applicable-policy lookup: the prebuilt index against a linear filter over all active policies
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyIndexBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int policyCount;
+
+    private List<Policy> policies;
+    private PolicyIndex policyIndex;
+    private int resourceCount;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        resourceCount = Math.max(1, policyCount / 5);
+        policies = BenchmarkFixtures.policies(policyCount, resourceCount);
+        policyIndex = PolicyIndex.build(policies);
+    }
+
+    @Benchmark
+    public List<Policy> indexLookup() {
+        int i = next++;
+        return policyIndex.lookup(BenchmarkFixtures.resource(i % resourceCount), BenchmarkFixtures.action(i));
+    }
+
+    @Benchmark
+    public List<Policy> linearFilter() {
+        int i = next++;
+        String resource = BenchmarkFixtures.resource(i % resourceCount);
+        String action = BenchmarkFixtures.action(i);
+        return policies.stream()
+                .filter(policy -> (policy.getResource() == null || policy.getResource().equals("*") || policy.getResource().equals(resource)) &&
+                        (policy.getAction() == null || policy.getAction().equals("*") || policy.getAction().equals(action)))
+                .toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.gatekeeper.benchmark;
+
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.util.PolicyIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Glob and prefix resource patterns over hierarchical paths: the compiled trie in PolicyIndex
+// against testing every pattern in turn (what a per-policy isApplicable check would do)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyPatternBenchmark {
+
+    private static final int TENANTS = 500;
+
+    @Param({"1000", "10000", "100000"})
+    private int patternCount;
+
+    private PolicyIndex policyIndex;
+    private PathMatcher[] matchers;
+    private String[] resources;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Policy> policies = new ArrayList<>(patternCount);
+        matchers = new PathMatcher[patternCount];
+        for (int i = 0; i < patternCount; i++) {
+            String pattern = pattern(i);
+            Policy policy = new Policy();
+            policy.setId((long) i + 1);
+            policy.setName("pattern-" + i);
+            policy.setResource(pattern);
+            policy.setAction(i % 3 == 0 ? "*" : "read");
+            policies.add(policy);
+            matchers[i] = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        }
+        policyIndex = PolicyIndex.build(policies);
+
+        resources = new String[1024];
+        for (int i = 0; i < resources.length; i++) {
+            int id = (i * 7919) % patternCount;
+            int tenant = id % TENANTS;
+            resources[i] = switch (i % 4) {
+                case 0 -> "tenants/t" + tenant + "/projects/p" + id + "/src/main/App.java";
+                case 1 -> "tenants/t" + tenant + "/projects/p" + id + "/docs/design.pdf";
+                case 2 -> "tenants/t" + tenant + "/shared/s" + id + "/report-07";
+                default -> "tenants/t" + tenant + "/users/u" + id + "/profile";
+            };
+        }
+
+        // Both strategies must agree on what matches
+        for (String resource : resources) {
+            int expected = linearScan(resource);
+            if (policyIndex.lookup(resource, "read").size() != expected) {
+                throw new IllegalStateException("Trie and linear scan disagree for " + resource);
+            }
+        }
+    }
+
+    private static String pattern(int i) {
+        int tenant = i % TENANTS;
+        return switch (i % 4) {
+            case 0 -> "tenants/t" + tenant + "/projects/p" + i + "/**";
+            case 1 -> "tenants/t" + tenant + "/projects/p" + i + "/docs/*.pdf";
+            case 2 -> "tenants/t" + tenant + "/shared/s" + i + "/report-??";
+            default -> "tenants/t" + tenant + "/users/u" + i + "/*";
+        };
+    }
+
+    @Benchmark
+    public List<Policy> trieLookup() {
+        return policyIndex.lookup(resources[next++ & (resources.length - 1)], "read");
+    }
+
+    @Benchmark
+    public int linearScan() {
+        return linearScan(resources[next++ & (resources.length - 1)]);
+    }
+
+    private int linearScan(String resource) {
+        Path path = Path.of(resource);
+        int matched = 0;
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,67 @@
+package com.gatekeeper.benchmark;
+
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.util.PolicySetEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+// Sequential vs. pooled evaluation of one request's applicable policies when each policy waits
+// ~100us, standing in for a remote attribute lookup or engine call. The deny policy sits in the
+// middle of the set, so the parallel run also exercises cancellation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicySetEvaluatorBenchmark {
+
+    @Param({"64"})
+    private int policyCount;
+
+    private List<Policy> policies;
+    private PolicySetEvaluator sequential;
+    private PolicySetEvaluator parallel;
+    private Predicate<Policy> evaluation;
+    private IntPredicate isDeny;
+
+    @Setup
+    public void setUp() {
+        policies = BenchmarkFixtures.policies(policyCount, 1);
+        Policy deny = policies.get(policyCount / 2);
+
+        sequential = new PolicySetEvaluator(false, 32, 8, 1000);
+        parallel = new PolicySetEvaluator(true, 32, 8, 1000);
+        evaluation = policy -> {
+            LockSupport.parkNanos(100_000);
+            return policy == deny;
+        };
+        isDeny = index -> index == policyCount / 2;
+
+        Boolean[] expected = sequential.evaluate(policies, evaluation, isDeny);
+        if (!Arrays.equals(expected, parallel.evaluate(policies, evaluation, isDeny))) {
+            throw new IllegalStateException("Parallel evaluation differs from sequential evaluation");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallel.shutdown();
+    }
+
+    @Benchmark
+    public Boolean[] sequential() {
+        return sequential.evaluate(policies, evaluation, isDeny);
+    }
+
+    @Benchmark
+    public Boolean[] parallel() {
+        return parallel.evaluate(policies, evaluation, isDeny);
+    }
+}
@@ -0,0 +1,123 @@
+package com.gatekeeper.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatekeeper.benchmark.BenchmarkFixtures;
+import com.gatekeeper.benchmark.InMemoryRedisTemplate;
+import com.gatekeeper.model.AccessDecision;
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.util.DecisionKey;
+import com.gatekeeper.util.PolicyEvaluator;
+import com.gatekeeper.util.PolicySetEvaluator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Full AuthorizationService.authorize path with in-memory stand-ins for Redis, the policy
+// repository and the audit database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationServiceBenchmark {
+
+    @Param({"100", "1000"})
+    private int policyCount;
+
+    private InMemoryRedisTemplate<byte[], byte[]> decisionRedisTemplate;
+    private AuditWriter auditWriter;
+    private AuthorizationService localCacheService;
+    private AuthorizationService redisOnlyService;
+    private AccessRequest hotRequest;
+    private AccessRequest missRequest;
+    private long missCounter;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        PolicyEvaluator policyEvaluator = BenchmarkFixtures.policyEvaluator();
+        PolicyService policyService = new PolicyService(
+                BenchmarkFixtures.policyRepository(BenchmarkFixtures.policies(policyCount, 50)), null, policyEvaluator,
+                InMemoryRedisTemplate.json(), objectMapper);
+        policyService.reloadPolicyIndex();
+
+        auditWriter = new AuditWriter(new NoOpJdbcTemplate(), new SimpleMeterRegistry(),
+                50_000, 500, Duration.ofMillis(200), AuditWriter.OverflowPolicy.DROP, Duration.ZERO, Duration.ofSeconds(5));
+        auditWriter.start();
+        AuditRollupAggregator auditRollupAggregator = new AuditRollupAggregator(new NoOpJdbcTemplate(),
+                new SimpleMeterRegistry(), 100_000);
+        AuditService auditService = new AuditService(auditWriter, auditRollupAggregator, objectMapper);
+        ReflectionTestUtils.setField(auditService, "auditEnabled", true);
+
+        decisionRedisTemplate = InMemoryRedisTemplate.binary();
+        DecisionCodec decisionCodec = new DecisionCodec(policyService);
+        DecisionCache localCache = new DecisionCache(decisionRedisTemplate, decisionCodec, new SimpleMeterRegistry(),
+                10_000, Duration.ofMinutes(1), Duration.ofMinutes(5), BenchmarkFixtures.KEY_SECRET, 1.0);
+        // Local entries expire immediately, so every hit is served from the Redis stand-in
+        DecisionCache redisOnlyCache = new DecisionCache(decisionRedisTemplate, decisionCodec, new SimpleMeterRegistry(),
+                10_000, Duration.ofNanos(1), Duration.ofMinutes(5), BenchmarkFixtures.KEY_SECRET, 1.0);
+
+        PolicySetEvaluator policySetEvaluator = new PolicySetEvaluator(false, 32, 1, 1);
+        AuthorizationMetrics metrics = new AuthorizationMetrics(new SimpleMeterRegistry());
+        localCacheService = new AuthorizationService(policyService, auditService, policyEvaluator, localCache, policySetEvaluator, metrics);
+        redisOnlyService = new AuthorizationService(policyService, auditService, policyEvaluator, redisOnlyCache, policySetEvaluator, metrics);
+
+        hotRequest = BenchmarkFixtures.request(BenchmarkFixtures.resource(1), "read");
+        missRequest = BenchmarkFixtures.request(BenchmarkFixtures.resource(2), "write");
+        localCacheService.authorize(hotRequest);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetRedis() {
+        decisionRedisTemplate.clear();
+        localCacheService.authorize(hotRequest);
+    }
+
+    @TearDown
+    public void tearDown() {
+        auditWriter.stop();
+    }
+
+    @Benchmark
+    public DecisionKey cacheKey() {
+        return localCacheService.generateCacheKey(hotRequest);
+    }
+
+    @Benchmark
+    public AccessDecision authorizeLocalHit() {
+        return localCacheService.authorize(hotRequest);
+    }
+
+    @Benchmark
+    public AccessDecision authorizeRedisHit() {
+        return redisOnlyService.authorize(hotRequest);
+    }
+
+    // A context value that changes on every call forces policy evaluation, cache write and audit
+    @Benchmark
+    public AccessDecision authorizeMiss() {
+        missRequest.getContext().put("requestId", missCounter++);
+        return localCacheService.authorize(missRequest);
+    }
+
+    private static final class NoOpJdbcTemplate extends JdbcTemplate {
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            return new int[0][];
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            return new int[0];
+        }
+    }
+}
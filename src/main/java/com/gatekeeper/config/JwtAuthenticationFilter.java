@@ -2,8 +2,8 @@
 package com.gatekeeper.config;
 
 import com.gatekeeper.util.JwtUtil;
-import com.gatekeeper.service.UserService;
-import com.gatekeeper.model.User;
+import com.gatekeeper.service.SubjectAttributeCache;
+import com.gatekeeper.model.SubjectAttributes;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -28,45 +28,44 @@ import java.util.ArrayList;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserService userService;
+    private final SubjectAttributeCache subjectAttributeCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
         String username = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
+            String token = authHeader.substring(7);
             try {
-                username = jwtUtil.getUsernameFromToken(token);
+                // Signature and expiry are checked here, once; repeat requests with the same token hit the cache
+                Claims claims = jwtUtil.verifyToken(token);
+                username = claims.getSubject();
             } catch (Exception e) {
-                log.warn("Error extracting username from token: ", e);
+                log.warn("Rejected bearer token: {}", e.getMessage());
             }
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(token, username)) {
-                try {
-                    // Get user details and role information
-                    User user = userService.getUserByUsername(username);
+            try {
+                // Get role information from the cached attribute snapshot
+                SubjectAttributes subject = subjectAttributeCache.get(username);
 
-                    // Create authorities based on user role
-                    List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                    authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
-                    authorities.add(new SimpleGrantedAuthority(user.getRole()));
+                // Create authorities based on user role
+                List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + subject.getRole()));
+                authorities.add(new SimpleGrantedAuthority(subject.getRole()));
 
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(username, null, authorities);
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(username, null, authorities);
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    log.debug("User {} authenticated with role {}", username, user.getRole());
-                } catch (Exception e) {
-                    log.warn("Error setting authentication for user {}: ", username, e);
-                }
+                log.debug("User {} authenticated with role {}", username, subject.getRole());
+            } catch (Exception e) {
+                log.warn("Error setting authentication for user {}: ", username, e);
             }
         }
 
@@ -10,7 +10,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.util.StringUtils;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,6 +23,13 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${spring.application.name:gatekeeper}")
+    private String applicationName;
+
+    // Defaults to the host name (the pod name on Kubernetes)
+    @Value("${gatekeeper.policy-updates.instance-id:}")
+    private String instanceId;
+
     @Bean
     public ProducerFactory<String, String> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -38,7 +48,10 @@ public class KafkaConfig {
     public ConsumerFactory<String, String> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "gatekeeper-policy-updates");
+        // Every instance applies every policy update, so each one consumes in a group of its own. The group
+        // is named after the instance, so a restart resumes it instead of leaving an orphaned group behind.
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, applicationName + "-policy-updates-" + instanceId());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         return new DefaultKafkaConsumerFactory<>(props);
@@ -48,6 +61,23 @@ public class KafkaConfig {
     public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        // Policy updates are coalesced per burst, so hand them over a poll at a time
+        factory.setBatchListener(true);
         return factory;
     }
-}
\ No newline at end of file
+
+    private String instanceId() {
+        if (StringUtils.hasText(instanceId)) {
+            return instanceId;
+        }
+        String hostname = System.getenv("HOSTNAME");
+        if (StringUtils.hasText(hostname)) {
+            return hostname;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot determine the host name; set gatekeeper.policy-updates.instance-id", e);
+        }
+    }
+}
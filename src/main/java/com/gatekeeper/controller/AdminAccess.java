@@ -0,0 +1,25 @@
+package com.gatekeeper.controller;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+// Admin check shared by the controllers that guard admin-only operations
+final class AdminAccess {
+
+    private AdminAccess() {
+    }
+
+    static boolean isAdmin(Authentication authentication) {
+        if (authentication == null || authentication.getAuthorities() == null) {
+            return false;
+        }
+
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(authority ->
+                        authority.equals("ROLE_admin") ||
+                                authority.equals("admin") ||
+                                authority.equals("ADMIN")
+                );
+    }
+}
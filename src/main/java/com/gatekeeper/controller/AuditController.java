@@ -0,0 +1,107 @@
+package com.gatekeeper.controller;
+
+import com.gatekeeper.service.AuditExportService;
+import com.gatekeeper.service.AuditQueryService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+@Slf4j
+public class AuditController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String GZIP = "application/gzip";
+
+    private final AuditExportService auditExportService;
+    private final AuditQueryService auditQueryService;
+
+    // One keyset page of the audit records of a user or a resource, oldest first. The page's
+    // nextCursor, passed back as ?cursor=, fetches the following page.
+    @GetMapping
+    public ResponseEntity<AuditQueryService.AuditPage> getAuditLogs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String resource,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size,
+            Authentication authentication) {
+        if (!AdminAccess.isAdmin(authentication)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin role required");
+        }
+        if ((userId == null) == (resource == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Exactly one of userId or resource is required");
+        }
+        AuditExportService.Cursor after = decodeCursor(cursor);
+
+        AuditQueryService.AuditPage page = userId != null
+                ? auditQueryService.findByUser(userId, start, end, after, size)
+                : auditQueryService.findByResource(resource, start, end, after, size);
+        return ResponseEntity.ok(page);
+    }
+
+    // Streams matching audit records as NDJSON, one record per line. Each line carries a "cursor";
+    // passing the last one received as ?cursor= resumes an interrupted export right after it.
+    @GetMapping("/export")
+    public void exportAuditLogs(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                @RequestParam(required = false) String userId,
+                                @RequestParam(required = false) String resource,
+                                @RequestParam(required = false) String cursor,
+                                @RequestParam(defaultValue = "false") boolean gzip,
+                                Authentication authentication,
+                                HttpServletResponse response) throws IOException {
+        if (!AdminAccess.isAdmin(authentication)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin role required");
+        }
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "start must be before end");
+        }
+
+        AuditExportService.Cursor after = decodeCursor(cursor);
+
+        // A gzip export is a .gz file, not a compressed NDJSON response: clients that honour
+        // Content-Encoding would otherwise unpack it and save plain NDJSON under the .gz name
+        if (gzip) {
+            response.setContentType(GZIP);
+        } else {
+            response.setContentType(NDJSON);
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"audit-export.ndjson" + (gzip ? ".gz" : "") + "\"");
+
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+        if (gzip) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        try (OutputStream body = out) {
+            long rows = auditExportService.export(start, end, userId, resource, after, body);
+            log.info("Audit export for {} to {} streamed {} records", start, end, rows);
+        }
+    }
+
+    private static AuditExportService.Cursor decodeCursor(String cursor) {
+        try {
+            return cursor != null ? AuditExportService.Cursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -1,22 +1,29 @@
 package com.gatekeeper.controller;
 
 import com.gatekeeper.dto.AccessRequestDto;
+import com.gatekeeper.dto.BatchAccessRequestDto;
 import com.gatekeeper.dto.LoginRequest;
 import com.gatekeeper.dto.LoginResponse;
 import com.gatekeeper.model.AccessDecision;
 import com.gatekeeper.model.AccessRequest;
 import com.gatekeeper.model.User;
 import com.gatekeeper.service.AuthorizationService;
+import com.gatekeeper.service.SubjectAttributeCache;
 import com.gatekeeper.service.UserService;
 import com.gatekeeper.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -28,6 +35,11 @@ public class AuthController {
     private final AuthorizationService authorizationService;
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final SubjectAttributeCache subjectAttributeCache;
+
+    // Traces expose policy names and conditions, so explain is off by default and admin-only when on
+    @Value("${gatekeeper.evaluation.explain-enabled:false}")
+    private boolean explainEnabled;
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
@@ -80,10 +92,18 @@ public class AuthController {
 
     @PostMapping("/authorize")
     public ResponseEntity<AccessDecision> authorize(
-            @RequestBody AccessRequestDto requestDto,
+            @Valid @RequestBody AccessRequestDto requestDto,
+            @RequestParam(defaultValue = "false") boolean explain,
             Authentication authentication,
             HttpServletRequest httpRequest) {
 
+        if (explain && !explainEnabled) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Explain requests are disabled");
+        }
+        if (explain && !AdminAccess.isAdmin(authentication)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin role required");
+        }
+
         try {
             // Build access request
             AccessRequest accessRequest = new AccessRequest();
@@ -94,18 +114,12 @@ public class AuthController {
             accessRequest.setContext(requestDto.getContext() != null ? requestDto.getContext() : new HashMap<>());
 
             // Get user attributes
-            User user = userService.getUserByUsername(authentication.getName());
-            Map<String, Object> userAttrs = new HashMap<>();
-            userAttrs.put("role", user.getRole());
-            userAttrs.put("department", user.getDepartment());
-            userAttrs.put("location", user.getLocation());
-            if (user.getAttributes() != null) {
-                userAttrs.putAll(user.getAttributes());
-            }
-            accessRequest.setUserAttributes(userAttrs);
+            accessRequest.setUserAttributes(subjectAttributeCache.get(authentication.getName()).getAttributes());
 
-            // Evaluate authorization
-            AccessDecision decision = authorizationService.authorize(accessRequest);
+            // Evaluate authorization; explain skips the cache and returns a per-policy trace
+            AccessDecision decision = explain
+                    ? authorizationService.explain(accessRequest)
+                    : authorizationService.authorize(accessRequest);
 
             return ResponseEntity.ok(decision);
 
@@ -119,6 +133,46 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/authorize/batch")
+    public ResponseEntity<List<AccessDecision>> authorizeBatch(
+            @Valid @RequestBody BatchAccessRequestDto batchDto,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+
+        List<AccessRequestDto> requestDtos = batchDto.getRequests();
+        try {
+            // Resolve the principal once for the whole batch
+            Map<String, Object> userAttrs = subjectAttributeCache.get(authentication.getName()).getAttributes();
+            String clientIp = getClientIp(httpRequest);
+
+            List<AccessRequest> accessRequests = new ArrayList<>(requestDtos.size());
+            for (AccessRequestDto requestDto : requestDtos) {
+                AccessRequest accessRequest = new AccessRequest();
+                accessRequest.setUserId(authentication.getName());
+                accessRequest.setResource(requestDto.getResource());
+                accessRequest.setAction(requestDto.getAction());
+                accessRequest.setClientIp(clientIp);
+                accessRequest.setContext(requestDto.getContext() != null ? requestDto.getContext() : new HashMap<>());
+                accessRequest.setUserAttributes(userAttrs);
+                accessRequests.add(accessRequest);
+            }
+
+            return ResponseEntity.ok(authorizationService.authorizeBatch(accessRequests));
+
+        } catch (Exception e) {
+            log.error("Error during batch authorization request: ", e);
+            List<AccessDecision> denyDecisions = new ArrayList<>(requestDtos.size());
+            for (int i = 0; i < requestDtos.size(); i++) {
+                AccessDecision denyDecision = new AccessDecision();
+                denyDecision.setAllowed(false);
+                denyDecision.setDecision("DENY");
+                denyDecision.setReason("Authorization request failed: " + e.getMessage());
+                denyDecisions.add(denyDecision);
+            }
+            return ResponseEntity.ok(denyDecisions);
+        }
+    }
+
     private String getClientIp(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
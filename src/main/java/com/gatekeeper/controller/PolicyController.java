@@ -2,12 +2,12 @@ package com.gatekeeper.controller;
 
 import com.gatekeeper.dto.PolicyDto;
 import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
 import com.gatekeeper.service.PolicyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
@@ -40,7 +40,7 @@ public class PolicyController {
                                           Authentication authentication) {
         try {
             // Check if user is admin
-            if (!isAdmin(authentication)) {
+            if (!AdminAccess.isAdmin(authentication)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "Access denied", "message", "Admin role required"));
             }
@@ -60,7 +60,7 @@ public class PolicyController {
                                           @Valid @RequestBody PolicyDto policyDto,
                                           Authentication authentication) {
         try {
-            if (!isAdmin(authentication)) {
+            if (!AdminAccess.isAdmin(authentication)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "Access denied", "message", "Admin role required"));
             }
@@ -81,7 +81,7 @@ public class PolicyController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deletePolicy(@PathVariable Long id, Authentication authentication) {
         try {
-            if (!isAdmin(authentication)) {
+            if (!AdminAccess.isAdmin(authentication)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "Access denied", "message", "Admin role required"));
             }
@@ -98,7 +98,7 @@ public class PolicyController {
     @PostMapping("/cache/clear")
     public ResponseEntity<?> clearCache(Authentication authentication) {
         try {
-            if (!isAdmin(authentication)) {
+            if (!AdminAccess.isAdmin(authentication)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "Access denied", "message", "Admin role required"));
             }
@@ -122,21 +122,7 @@ public class PolicyController {
         policy.setAction(dto.getAction() != null ? dto.getAction() : "*");
         policy.setActive(dto.getActive() != null ? dto.getActive() : true);
         policy.setPriority(dto.getPriority() != null ? dto.getPriority() : 0);
+        policy.setEffect(dto.getEffect() != null ? dto.getEffect() : PolicyEffect.inferFromName(dto.getName()));
         return policy;
     }
-
-    // Helper method to check if user is admin
-    private boolean isAdmin(Authentication authentication) {
-        if (authentication == null || authentication.getAuthorities() == null) {
-            return false;
-        }
-
-        return authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .anyMatch(authority ->
-                        authority.equals("ROLE_admin") ||
-                                authority.equals("admin") ||
-                                authority.equals("ADMIN")
-                );
-    }
 }
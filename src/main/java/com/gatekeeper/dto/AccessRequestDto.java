@@ -1,12 +1,17 @@
 // AccessRequestDto.java
 package com.gatekeeper.dto;
 
+import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import java.util.Map;
 
 @Data
 public class AccessRequestDto {
+    @NotBlank(message = "Resource is required")
     private String resource;
+
+    @NotBlank(message = "Action is required")
     private String action;
+
     private Map<String, Object> context;
 }
\ No newline at end of file
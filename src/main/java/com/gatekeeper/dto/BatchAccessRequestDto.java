@@ -0,0 +1,15 @@
+package com.gatekeeper.dto;
+
+import lombok.Data;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class BatchAccessRequestDto {
+    @NotEmpty(message = "At least one request is required")
+    @Size(max = 500, message = "Batch must not exceed 500 requests")
+    private List<@NotNull(message = "Request entries must not be null") @Valid AccessRequestDto> requests;
+}
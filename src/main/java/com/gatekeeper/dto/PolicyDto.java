@@ -4,6 +4,7 @@ package com.gatekeeper.dto;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import com.gatekeeper.model.PolicyEffect;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Max;
@@ -30,4 +31,7 @@ public class PolicyDto {
     @Min(value = 0, message = "Priority must be non-negative")
     @Max(value = 1000, message = "Priority must not exceed 1000")
     private Integer priority = 0;
+
+    // Inferred from the policy name when omitted
+    private PolicyEffect effect;
 }
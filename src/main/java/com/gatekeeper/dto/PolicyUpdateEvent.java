@@ -0,0 +1,45 @@
+package com.gatekeeper.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.gatekeeper.model.Policy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Message on the policy-updates topic. Carries the whole policy, so receivers patch their policy index
+// without reading the database. version is the policy epoch the change was published under; epochs
+// advance by one per change, so a receiver that sees anything but its own epoch + 1 has missed an event.
+// RESYNC announces a change that cannot be described as a delta (a cache clear); receivers reload. Older
+// receivers cannot read that type, and reload for any message they cannot read.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PolicyUpdateEvent {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    public enum Type {
+        CREATE, UPDATE, DELETE, RESYNC
+    }
+
+    // Messages without one predate this format and only tell receivers to reload
+    private int schemaVersion;
+    private Type type;
+
+    // Null when the epoch could not be advanced; receivers then reload in full
+    private Long version;
+    private Long policyId;
+
+    // State after the change; null for DELETE and RESYNC
+    private Policy policy;
+
+    public static PolicyUpdateEvent of(Type type, Policy policy, Long version) {
+        return new PolicyUpdateEvent(SCHEMA_VERSION, type, version, policy.getId(),
+                type == Type.DELETE ? null : policy);
+    }
+
+    public static PolicyUpdateEvent resync(Long version) {
+        return new PolicyUpdateEvent(SCHEMA_VERSION, Type.RESYNC, version, null, null);
+    }
+}
@@ -1,6 +1,8 @@
 // Update: src/main/java/com/gatekeeper/model/AccessDecision.java
 package com.gatekeeper.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -15,10 +17,19 @@ public class AccessDecision {
     private boolean allowed;
     private String decision; // "PERMIT", "DENY"
     private String reason;
+    private ReasonCode reasonCode;
     private List<String> appliedPolicies = new ArrayList<>();
+
+    // Same order as appliedPolicies; lets cached decisions store IDs instead of names
+    @JsonIgnore
+    private List<Long> appliedPolicyIds = new ArrayList<>();
     private LocalDateTime evaluatedAt = LocalDateTime.now();
     private long evaluationTimeMs;
 
+    // Only filled for explain requests, which are never cached
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<PolicyTrace> trace;
+
     // Constructor for quick deny decisions
     public AccessDecision(boolean allowed, String decision, String reason) {
         this.allowed = allowed;
@@ -26,5 +37,6 @@ public class AccessDecision {
         this.reason = reason;
         this.evaluatedAt = LocalDateTime.now();
         this.appliedPolicies = new ArrayList<>();
+        this.appliedPolicyIds = new ArrayList<>();
     }
 }
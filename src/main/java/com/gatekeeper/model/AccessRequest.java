@@ -15,4 +15,7 @@ public class AccessRequest {
     private Map<String, Object> context;
     private Map<String, Object> userAttributes;
     private Map<String, Object> resourceAttributes;
+
+    // Warm-up traffic: evaluated and cached like any request, but never audited or counted as a decision
+    private boolean synthetic;
 }
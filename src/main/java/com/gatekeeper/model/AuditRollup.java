@@ -0,0 +1,25 @@
+package com.gatekeeper.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Number of cache-hit decisions for one user, resource, action and outcome within one minute.
+// A bucket may be split over several rows (one per node and flush); sum hitCount when querying.
+@Entity
+@Table(name = "audit_rollups")
+@Data
+public class AuditRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    private String userId;
+    private String resource;
+    private String action;
+    private String decision;
+    private long hitCount;
+}
@@ -1,8 +1,11 @@
 // Policy.java
 package com.gatekeeper.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.gatekeeper.util.CompiledRule;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
@@ -25,9 +28,20 @@ public class Policy {
     private boolean active = true;
     private int priority = 0;
 
+    // Null only on rows created before effects were stored; filled in from the name when the index loads
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private PolicyEffect effect;
+
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Filled in by PolicyEvaluator when the policy is loaded into the policy index
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    private transient CompiledRule compiledRule;
+
     @PreUpdate
     public void preUpdate() {
         updatedAt = LocalDateTime.now();
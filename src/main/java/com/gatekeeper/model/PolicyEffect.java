@@ -0,0 +1,19 @@
+package com.gatekeeper.model;
+
+// What a policy contributes to the decision when it matches
+public enum PolicyEffect {
+    PERMIT,
+    DENY;
+
+    // Naming convention used before effects were stored; only applied to rows without an effect
+    public static PolicyEffect inferFromName(String name) {
+        String lowerName = name != null ? name.toLowerCase() : "";
+        if (lowerName.contains("permit") || lowerName.contains("allow") || lowerName.contains("access")) {
+            return PERMIT;
+        }
+        if (lowerName.contains("deny") || lowerName.contains("block")) {
+            return DENY;
+        }
+        return PERMIT;
+    }
+}
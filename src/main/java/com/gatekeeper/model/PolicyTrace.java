@@ -0,0 +1,33 @@
+package com.gatekeeper.model;
+
+import lombok.Data;
+
+// One policy's part in an explained decision, in the order the policies were considered
+@Data
+public class PolicyTrace {
+
+    public enum Outcome {
+        MATCH, NO_MATCH, ERROR, NOT_EVALUATED
+    }
+
+    private Long policyId;
+    private String policyName;
+    private int priority;
+    private PolicyEffect effect;
+    private String engine;
+    private Outcome outcome = Outcome.NOT_EVALUATED;
+
+    // What settled the result: admin_bypass, the first condition that failed, all_conditions for a
+    // custom-engine match, or the queried package for OPA. Holds the error message for ERROR.
+    private String condition;
+    private long evaluationTimeNanos;
+
+    public static PolicyTrace of(Policy policy) {
+        PolicyTrace trace = new PolicyTrace();
+        trace.setPolicyId(policy.getId());
+        trace.setPolicyName(policy.getName());
+        trace.setPriority(policy.getPriority());
+        trace.setEffect(policy.getEffect());
+        return trace;
+    }
+}
@@ -0,0 +1,38 @@
+package com.gatekeeper.model;
+
+// Why a decision was reached. Codes are part of the cached decision layout; never renumber them.
+public enum ReasonCode {
+    POLICY_PERMIT(1, "Access granted by applicable policies"),
+    POLICY_DENY(2, "Denied by policy: "),
+    NO_PERMIT(3, "No applicable permit policies found"),
+    ERROR(4, "Authorization service error: ");
+
+    private final int code;
+    private final String message;
+
+    ReasonCode(int code, String message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    // Human-readable reason; detail is the deny policy name or error message where the code has one
+    public String describe(String detail) {
+        return switch (this) {
+            case POLICY_DENY, ERROR -> message + detail;
+            default -> message;
+        };
+    }
+
+    public static ReasonCode fromCode(int code) {
+        for (ReasonCode reasonCode : values()) {
+            if (reasonCode.code == code) {
+                return reasonCode;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.gatekeeper.model;
+
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// Immutable snapshot of the attributes a user is authorized with: role, department, location and
+// any custom attributes, in the shape policies read them from AccessRequest.userAttributes
+@Value
+public class SubjectAttributes {
+
+    String username;
+    String role;
+    Map<String, Object> attributes;
+
+    public static SubjectAttributes of(User user) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("role", user.getRole());
+        attributes.put("department", user.getDepartment());
+        attributes.put("location", user.getLocation());
+        if (user.getAttributes() != null) {
+            attributes.putAll(user.getAttributes());
+        }
+        return new SubjectAttributes(user.getUsername(), user.getRole(),
+                Collections.unmodifiableMap(attributes));
+    }
+}
@@ -0,0 +1,85 @@
+package com.gatekeeper.rego;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Evaluates the .rego bundle in-process. Each module is parsed once at startup into an evaluation
+// plan; a query is then a walk over that plan with no network hop.
+@Component
+@Slf4j
+public class EmbeddedRegoEngine {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, RegoModule> modules;
+
+    public EmbeddedRegoEngine(ObjectMapper objectMapper,
+                              @Value("${gatekeeper.opa.bundle-locations:file:docker/opa-policies/*.rego}") String[] bundleLocations) {
+        this.objectMapper = objectMapper;
+        this.modules = load(bundleLocations);
+    }
+
+    public Set<String> getPackages() {
+        return modules.keySet();
+    }
+
+    public boolean hasPackage(String regoPackage) {
+        return modules.containsKey(regoPackage);
+    }
+
+    // Value of <package>.allow for the input, or null when the package is not part of the bundle
+    public Boolean allow(String regoPackage, Map<String, Object> input) {
+        RegoModule module = modules.get(regoPackage);
+        if (module == null) {
+            return null;
+        }
+        // Same JSON view of the input that OPA receives over HTTP
+        Map<String, Object> document = objectMapper.convertValue(input, JSON_OBJECT);
+        return module.evaluateAllow(document);
+    }
+
+    private static Map<String, RegoModule> load(String[] bundleLocations) {
+        Map<String, RegoModule> modules = new HashMap<>();
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+        for (String location : bundleLocations) {
+            Resource[] resources;
+            try {
+                resources = resolver.getResources(location.trim());
+            } catch (IOException e) {
+                log.warn("Cannot resolve Rego bundle location {}: {}", location, e.getMessage());
+                continue;
+            }
+
+            for (Resource resource : resources) {
+                try {
+                    String source = resource.getContentAsString(StandardCharsets.UTF_8);
+                    RegoModule module = RegoParser.parse(source);
+                    if (modules.putIfAbsent(module.getPackageName(), module) != null) {
+                        log.warn("Ignoring {}: package {} is already loaded", resource.getDescription(), module.getPackageName());
+                        continue;
+                    }
+                    log.info("Loaded Rego package {} from {} with rules {}",
+                            module.getPackageName(), resource.getDescription(), module.getRuleNames());
+                } catch (IOException | RegoParseException e) {
+                    log.warn("Cannot load Rego module {}: {}", resource.getDescription(), e.getMessage());
+                }
+            }
+        }
+        return Collections.unmodifiableMap(modules);
+    }
+}
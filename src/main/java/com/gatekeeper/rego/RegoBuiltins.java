@@ -0,0 +1,110 @@
+package com.gatekeeper.rego;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.TextStyle;
+import java.util.*;
+
+import static com.gatekeeper.rego.RegoModule.UNDEFINED;
+
+// Built-in functions available to embedded policies. A type error makes the call undefined,
+// which is how OPA treats builtin errors outside strict mode.
+final class RegoBuiltins {
+
+    @FunctionalInterface
+    interface Builtin {
+        Object apply(RegoModule.Evaluation evaluation, Object[] args);
+    }
+
+    private record Definition(int arity, Builtin function) {
+    }
+
+    private static final Map<String, Definition> BUILTINS = new HashMap<>();
+
+    static {
+        register("contains", 2, (ev, a) -> strings(a) ? ((String) a[0]).contains((String) a[1]) : UNDEFINED);
+        register("startswith", 2, (ev, a) -> strings(a) ? ((String) a[0]).startsWith((String) a[1]) : UNDEFINED);
+        register("endswith", 2, (ev, a) -> strings(a) ? ((String) a[0]).endsWith((String) a[1]) : UNDEFINED);
+        register("lower", 1, (ev, a) -> strings(a) ? ((String) a[0]).toLowerCase(Locale.ROOT) : UNDEFINED);
+        register("upper", 1, (ev, a) -> strings(a) ? ((String) a[0]).toUpperCase(Locale.ROOT) : UNDEFINED);
+        register("count", 1, (ev, a) -> {
+            if (a[0] instanceof String s) {
+                return BigDecimal.valueOf(s.codePointCount(0, s.length()));
+            }
+            if (a[0] instanceof Collection<?> c) {
+                return BigDecimal.valueOf(c.size());
+            }
+            if (a[0] instanceof Map<?, ?> m) {
+                return BigDecimal.valueOf(m.size());
+            }
+            return UNDEFINED;
+        });
+        register("time.now_ns", 0, (ev, a) -> BigDecimal.valueOf(ev.nowNs()));
+        register("time.date", 1, (ev, a) -> {
+            ZonedDateTime t = utc(a[0]);
+            return t == null ? UNDEFINED : List.of(decimal(t.getYear()), decimal(t.getMonthValue()), decimal(t.getDayOfMonth()));
+        });
+        register("time.clock", 1, (ev, a) -> {
+            ZonedDateTime t = utc(a[0]);
+            return t == null ? UNDEFINED : List.of(decimal(t.getHour()), decimal(t.getMinute()), decimal(t.getSecond()));
+        });
+        register("time.weekday", 1, (ev, a) -> {
+            ZonedDateTime t = utc(a[0]);
+            return t == null ? UNDEFINED : t.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+        });
+        register("time.parse_rfc3339_ns", 1, (ev, a) -> {
+            if (!(a[0] instanceof String s)) {
+                return UNDEFINED;
+            }
+            try {
+                Instant instant = OffsetDateTime.parse(s).toInstant();
+                return BigDecimal.valueOf(instant.getEpochSecond()).movePointRight(9).add(BigDecimal.valueOf(instant.getNano()));
+            } catch (Exception e) {
+                return UNDEFINED;
+            }
+        });
+    }
+
+    private RegoBuiltins() {
+    }
+
+    private static void register(String name, int arity, Builtin function) {
+        BUILTINS.put(name, new Definition(arity, function));
+    }
+
+    static Builtin resolve(String name, int argCount, int line) {
+        Definition definition = BUILTINS.get(name);
+        if (definition == null) {
+            throw new RegoParseException("unsupported function '" + name + "'", line);
+        }
+        if (definition.arity() != argCount) {
+            throw new RegoParseException("function '" + name + "' expects " + definition.arity() + " arguments", line);
+        }
+        return definition.function();
+    }
+
+    private static boolean strings(Object[] args) {
+        for (Object arg : args) {
+            if (!(arg instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BigDecimal decimal(int value) {
+        return BigDecimal.valueOf(value);
+    }
+
+    // Nanoseconds since the epoch, read in UTC as OPA does when no timezone is given
+    private static ZonedDateTime utc(Object ns) {
+        if (!(ns instanceof Number n)) {
+            return null;
+        }
+        BigDecimal[] parts = RegoModule.Values.toDecimal(n).divideAndRemainder(BigDecimal.valueOf(1_000_000_000L));
+        return Instant.ofEpochSecond(parts[0].longValue(), parts[1].longValue()).atZone(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,166 @@
+package com.gatekeeper.rego;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Tokenizer for the Rego subset understood by the embedded engine
+final class RegoLexer {
+
+    enum Type {
+        IDENT, STRING, NUMBER, NEWLINE, EOF,
+        LBRACE, RBRACE, LBRACKET, RBRACKET, LPAREN, RPAREN,
+        DOT, COMMA, SEMICOLON, ASSIGN, UNIFY, EQ, NEQ, LT, LTE, GT, GTE
+    }
+
+    record Token(Type type, String text, int line) {
+        boolean is(Type expected) {
+            return type == expected;
+        }
+
+        boolean isKeyword(String keyword) {
+            return type == Type.IDENT && text.equals(keyword);
+        }
+    }
+
+    private final String source;
+    private int pos;
+    private int line = 1;
+
+    private RegoLexer(String source) {
+        this.source = source;
+    }
+
+    static List<Token> tokenize(String source) {
+        return new RegoLexer(source).run();
+    }
+
+    private List<Token> run() {
+        List<Token> tokens = new ArrayList<>();
+        while (pos < source.length()) {
+            char c = source.charAt(pos);
+            if (c == '\n') {
+                tokens.add(new Token(Type.NEWLINE, "\n", line++));
+                pos++;
+            } else if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (c == '#') {
+                while (pos < source.length() && source.charAt(pos) != '\n') {
+                    pos++;
+                }
+            } else if (c == '"') {
+                tokens.add(new Token(Type.STRING, readString(), line));
+            } else if (c == '`') {
+                int end = source.indexOf('`', pos + 1);
+                if (end < 0) {
+                    throw error("unterminated raw string");
+                }
+                tokens.add(new Token(Type.STRING, source.substring(pos + 1, end), line));
+                pos = end + 1;
+            } else if (Character.isDigit(c) || (c == '-' && pos + 1 < source.length() && Character.isDigit(source.charAt(pos + 1)))) {
+                tokens.add(new Token(Type.NUMBER, readNumber(), line));
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = pos;
+                while (pos < source.length() && (Character.isLetterOrDigit(source.charAt(pos)) || source.charAt(pos) == '_')) {
+                    pos++;
+                }
+                tokens.add(new Token(Type.IDENT, source.substring(start, pos), line));
+            } else {
+                tokens.add(readSymbol(c));
+            }
+        }
+        tokens.add(new Token(Type.EOF, "", line));
+        return tokens;
+    }
+
+    private Token readSymbol(char c) {
+        char next = pos + 1 < source.length() ? source.charAt(pos + 1) : '\0';
+        Type type;
+        int length = 1;
+        switch (c) {
+            case '{' -> type = Type.LBRACE;
+            case '}' -> type = Type.RBRACE;
+            case '[' -> type = Type.LBRACKET;
+            case ']' -> type = Type.RBRACKET;
+            case '(' -> type = Type.LPAREN;
+            case ')' -> type = Type.RPAREN;
+            case '.' -> type = Type.DOT;
+            case ',' -> type = Type.COMMA;
+            case ';' -> type = Type.SEMICOLON;
+            case ':' -> {
+                if (next != '=') {
+                    throw error("unexpected ':'");
+                }
+                type = Type.ASSIGN;
+                length = 2;
+            }
+            case '=' -> {
+                type = next == '=' ? Type.EQ : Type.UNIFY;
+                length = next == '=' ? 2 : 1;
+            }
+            case '!' -> {
+                if (next != '=') {
+                    throw error("unexpected '!'");
+                }
+                type = Type.NEQ;
+                length = 2;
+            }
+            case '<' -> {
+                type = next == '=' ? Type.LTE : Type.LT;
+                length = next == '=' ? 2 : 1;
+            }
+            case '>' -> {
+                type = next == '=' ? Type.GTE : Type.GT;
+                length = next == '=' ? 2 : 1;
+            }
+            default -> throw error("unsupported character '" + c + "'");
+        }
+        Token token = new Token(type, source.substring(pos, pos + length), line);
+        pos += length;
+        return token;
+    }
+
+    private String readString() {
+        StringBuilder sb = new StringBuilder();
+        pos++;
+        while (pos < source.length()) {
+            char c = source.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\' && pos < source.length()) {
+                char escaped = source.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'u' -> {
+                        sb.append((char) Integer.parseInt(source.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(escaped);
+                }
+            } else if (c == '\n') {
+                throw error("unterminated string");
+            } else {
+                sb.append(c);
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    private String readNumber() {
+        int start = pos;
+        if (source.charAt(pos) == '-') {
+            pos++;
+        }
+        while (pos < source.length() && (Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.'
+                || source.charAt(pos) == 'e' || source.charAt(pos) == 'E')) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    private RegoParseException error(String message) {
+        return new RegoParseException(message, line);
+    }
+}
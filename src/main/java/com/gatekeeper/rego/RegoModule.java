@@ -0,0 +1,405 @@
+package com.gatekeeper.rego;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+// Evaluation plan for one parsed Rego module. Identifiers are resolved at parse time, so
+// evaluating a rule only walks prebuilt nodes against the input document.
+public final class RegoModule {
+
+    // Result of a reference or call that has no value, as opposed to JSON null
+    static final Object UNDEFINED = new Object() {
+        @Override
+        public String toString() {
+            return "undefined";
+        }
+    };
+
+    private final String packageName;
+    private final Map<String, Rule> rules;
+
+    RegoModule(String packageName, Map<String, Rule> rules) {
+        this.packageName = packageName;
+        this.rules = rules;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public Set<String> getRuleNames() {
+        return rules.keySet();
+    }
+
+    // Value of the named rule for the given input, or null when the rule is undefined
+    public Object evaluate(String ruleName, Object input) {
+        Rule rule = rules.get(ruleName);
+        if (rule == null) {
+            return null;
+        }
+        Object value = new Evaluation(this, input).rule(rule);
+        return value == UNDEFINED ? null : value;
+    }
+
+    public boolean evaluateAllow(Object input) {
+        return Boolean.TRUE.equals(evaluate("allow", input));
+    }
+
+    Rule rule(String name) {
+        return rules.get(name);
+    }
+
+    // ---- plan nodes ----
+
+    interface Term {
+        Object eval(Scope scope);
+    }
+
+    interface Expr {
+        boolean eval(Scope scope);
+    }
+
+    record Body(Expr[] exprs, int localCount, Term value) {
+    }
+
+    static final class Rule {
+        final String name;
+        final List<Body> bodies = new ArrayList<>();
+        Term defaultValue;
+
+        Rule(String name) {
+            this.name = name;
+        }
+    }
+
+    record Constant(Object value) implements Term {
+        @Override
+        public Object eval(Scope scope) {
+            return value;
+        }
+    }
+
+    record InputRef() implements Term {
+        @Override
+        public Object eval(Scope scope) {
+            return scope.evaluation.input;
+        }
+    }
+
+    record LocalRef(int slot) implements Term {
+        @Override
+        public Object eval(Scope scope) {
+            return scope.locals[slot];
+        }
+    }
+
+    record RuleRef(String name) implements Term {
+        @Override
+        public Object eval(Scope scope) {
+            return scope.evaluation.rule(scope.evaluation.module.rule(name));
+        }
+    }
+
+    record Select(Term base, Term key) implements Term {
+        @Override
+        public Object eval(Scope scope) {
+            Object target = base.eval(scope);
+            if (target == UNDEFINED) {
+                return UNDEFINED;
+            }
+            Object k = key.eval(scope);
+            if (k == UNDEFINED) {
+                return UNDEFINED;
+            }
+            if (target instanceof Map<?, ?> map) {
+                if (!(k instanceof String)) {
+                    return UNDEFINED;
+                }
+                Object value = map.get(k);
+                return value != null || map.containsKey(k) ? value : UNDEFINED;
+            }
+            if (target instanceof List<?> list && k instanceof Number n) {
+                BigDecimal index = Values.toDecimal(n);
+                if (index.signum() < 0 || index.stripTrailingZeros().scale() > 0 || index.compareTo(BigDecimal.valueOf(list.size())) >= 0) {
+                    return UNDEFINED;
+                }
+                return list.get(index.intValue());
+            }
+            return UNDEFINED;
+        }
+    }
+
+    record ArrayLiteral(Term[] items) implements Term {
+        @Override
+        public Object eval(Scope scope) {
+            List<Object> values = new ArrayList<>(items.length);
+            for (Term item : items) {
+                Object value = item.eval(scope);
+                if (value == UNDEFINED) {
+                    return UNDEFINED;
+                }
+                values.add(value);
+            }
+            return values;
+        }
+    }
+
+    record Call(String name, RegoBuiltins.Builtin builtin, Term[] args) implements Term {
+        @Override
+        public Object eval(Scope scope) {
+            Object[] values = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                values[i] = args[i].eval(scope);
+                if (values[i] == UNDEFINED) {
+                    return UNDEFINED;
+                }
+            }
+            return builtin.apply(scope.evaluation, values);
+        }
+    }
+
+    record Assign(int slot, Term value) implements Expr {
+        @Override
+        public boolean eval(Scope scope) {
+            Object v = value.eval(scope);
+            if (v == UNDEFINED) {
+                return false;
+            }
+            scope.locals[slot] = v;
+            return true;
+        }
+    }
+
+    enum Operator {
+        EQ, NEQ, LT, LTE, GT, GTE, IN
+    }
+
+    record Compare(Operator operator, Term left, Term right) implements Expr {
+        @Override
+        public boolean eval(Scope scope) {
+            Object l = left.eval(scope);
+            if (l == UNDEFINED) {
+                return false;
+            }
+            Object r = right.eval(scope);
+            if (r == UNDEFINED) {
+                return false;
+            }
+            return switch (operator) {
+                case EQ -> Values.equal(l, r);
+                case NEQ -> !Values.equal(l, r);
+                case IN -> Values.member(l, r);
+                default -> {
+                    int cmp = Values.compare(l, r);
+                    yield switch (operator) {
+                        case LT -> cmp < 0;
+                        case LTE -> cmp <= 0;
+                        case GT -> cmp > 0;
+                        default -> cmp >= 0;
+                    };
+                }
+            };
+        }
+    }
+
+    // A bare term in a body holds when it is defined and not false
+    record Truthy(Term term) implements Expr {
+        @Override
+        public boolean eval(Scope scope) {
+            Object value = term.eval(scope);
+            return value != UNDEFINED && !Boolean.FALSE.equals(value);
+        }
+    }
+
+    record Not(Expr expr) implements Expr {
+        @Override
+        public boolean eval(Scope scope) {
+            return !expr.eval(scope);
+        }
+    }
+
+    // ---- evaluation state ----
+
+    static final class Evaluation {
+        final RegoModule module;
+        final Object input;
+        private final Map<String, Object> ruleValues = new HashMap<>();
+        private final Set<String> inProgress = new HashSet<>();
+        private long nowNs = -1;
+
+        Evaluation(RegoModule module, Object input) {
+            this.module = module;
+            this.input = input;
+        }
+
+        // time.now_ns() is fixed for the duration of one query, as in OPA
+        long nowNs() {
+            if (nowNs < 0) {
+                java.time.Instant now = java.time.Instant.now();
+                nowNs = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+            }
+            return nowNs;
+        }
+
+        Object rule(Rule rule) {
+            if (rule == null) {
+                return UNDEFINED;
+            }
+            Object cached = ruleValues.get(rule.name);
+            if (cached != null) {
+                return cached;
+            }
+            if (!inProgress.add(rule.name)) {
+                throw new IllegalStateException("Recursive rule reference: " + rule.name);
+            }
+
+            Object value = UNDEFINED;
+            for (Body body : rule.bodies) {
+                Scope scope = new Scope(this, new Object[body.localCount()]);
+                if (scope.holds(body.exprs())) {
+                    value = body.value().eval(scope);
+                    if (value != UNDEFINED) {
+                        break;
+                    }
+                }
+            }
+            if (value == UNDEFINED && rule.defaultValue != null) {
+                value = rule.defaultValue.eval(new Scope(this, new Object[0]));
+            }
+
+            inProgress.remove(rule.name);
+            ruleValues.put(rule.name, value);
+            return value;
+        }
+    }
+
+    static final class Scope {
+        final Evaluation evaluation;
+        final Object[] locals;
+
+        Scope(Evaluation evaluation, Object[] locals) {
+            this.evaluation = evaluation;
+            this.locals = locals;
+        }
+
+        boolean holds(Expr[] exprs) {
+            for (Expr expr : exprs) {
+                if (!expr.eval(this)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // JSON value semantics shared by comparisons and builtins
+    static final class Values {
+
+        private Values() {
+        }
+
+        static BigDecimal toDecimal(Number n) {
+            if (n instanceof BigDecimal d) {
+                return d;
+            }
+            if (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte) {
+                return BigDecimal.valueOf(n.longValue());
+            }
+            return new BigDecimal(n.toString());
+        }
+
+        static boolean equal(Object a, Object b) {
+            if (a instanceof Number x && b instanceof Number y) {
+                return toDecimal(x).compareTo(toDecimal(y)) == 0;
+            }
+            if (a instanceof List<?> x && b instanceof List<?> y) {
+                if (x.size() != y.size()) {
+                    return false;
+                }
+                for (int i = 0; i < x.size(); i++) {
+                    if (!equal(x.get(i), y.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (a instanceof Map<?, ?> x && b instanceof Map<?, ?> y) {
+                if (x.size() != y.size()) {
+                    return false;
+                }
+                for (Map.Entry<?, ?> entry : x.entrySet()) {
+                    if (!y.containsKey(entry.getKey()) || !equal(entry.getValue(), y.get(entry.getKey()))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return Objects.equals(a, b);
+        }
+
+        static boolean member(Object element, Object collection) {
+            Collection<?> values;
+            if (collection instanceof List<?> list) {
+                values = list;
+            } else if (collection instanceof Map<?, ?> map) {
+                values = map.values();
+            } else {
+                return false;
+            }
+            for (Object value : values) {
+                if (equal(element, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Total order across types, following OPA: null < boolean < number < string < array < object
+        static int compare(Object a, Object b) {
+            int rankA = rank(a);
+            int rankB = rank(b);
+            if (rankA != rankB) {
+                return Integer.compare(rankA, rankB);
+            }
+            if (a instanceof Boolean x) {
+                return Boolean.compare(x, (Boolean) b);
+            }
+            if (a instanceof Number x) {
+                return toDecimal(x).compareTo(toDecimal((Number) b));
+            }
+            if (a instanceof String x) {
+                return x.compareTo((String) b);
+            }
+            if (a instanceof List<?> x) {
+                List<?> y = (List<?>) b;
+                for (int i = 0; i < Math.min(x.size(), y.size()); i++) {
+                    int cmp = compare(x.get(i), y.get(i));
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                return Integer.compare(x.size(), y.size());
+            }
+            return 0;
+        }
+
+        private static int rank(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof Boolean) {
+                return 1;
+            }
+            if (value instanceof Number) {
+                return 2;
+            }
+            if (value instanceof String) {
+                return 3;
+            }
+            if (value instanceof List) {
+                return 4;
+            }
+            return 5;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.gatekeeper.rego;
+
+public class RegoParseException extends RuntimeException {
+    public RegoParseException(String message, int line) {
+        super("line " + line + ": " + message);
+    }
+}
@@ -0,0 +1,394 @@
+package com.gatekeeper.rego;
+
+import com.gatekeeper.rego.RegoLexer.Token;
+import com.gatekeeper.rego.RegoLexer.Type;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+// Parses the supported Rego subset into a RegoModule:
+//   package / import, default rules, complete rules ("name if { ... }", "name := value if { ... }",
+//   "name { ... }"), assignments, not, comparisons, "in", refs into input and other rules,
+//   array literals and the functions in RegoBuiltins.
+// Anything else (partial rules, iteration, else, with, data refs) is rejected at load time.
+public final class RegoParser {
+
+    private static final Map<Type, RegoModule.Operator> COMPARISONS = Map.of(
+            Type.EQ, RegoModule.Operator.EQ,
+            Type.NEQ, RegoModule.Operator.NEQ,
+            Type.LT, RegoModule.Operator.LT,
+            Type.LTE, RegoModule.Operator.LTE,
+            Type.GT, RegoModule.Operator.GT,
+            Type.GTE, RegoModule.Operator.GTE);
+
+    private final List<Token> tokens;
+    private final Set<String> ruleNames;
+    private final Map<String, RegoModule.Rule> rules = new LinkedHashMap<>();
+    private int pos;
+
+    // Local variables of the body currently being parsed, by slot
+    private Map<String, Integer> locals = new HashMap<>();
+
+    private RegoParser(List<Token> tokens) {
+        this.tokens = tokens;
+        this.ruleNames = scanRuleNames(tokens);
+    }
+
+    public static RegoModule parse(String source) {
+        return new RegoParser(RegoLexer.tokenize(source)).parseModule();
+    }
+
+    private RegoModule parseModule() {
+        skipSeparators();
+        expectKeyword("package");
+        String packageName = parseDottedName();
+
+        while (true) {
+            skipSeparators();
+            Token token = peek();
+            if (token.is(Type.EOF)) {
+                break;
+            }
+            if (token.isKeyword("import")) {
+                // Imports such as rego.v1 or future.keywords only change syntax we already accept
+                while (!peek().is(Type.NEWLINE) && !peek().is(Type.EOF)) {
+                    pos++;
+                }
+            } else if (token.isKeyword("default")) {
+                parseDefault();
+            } else {
+                parseRule();
+            }
+        }
+
+        if (rules.isEmpty()) {
+            throw new RegoParseException("module " + packageName + " defines no rules", peek().line());
+        }
+        return new RegoModule(packageName, rules);
+    }
+
+    private void parseDefault() {
+        expectKeyword("default");
+        String name = expect(Type.IDENT).text();
+        Token op = next();
+        if (!op.is(Type.ASSIGN) && !op.is(Type.UNIFY)) {
+            throw error("expected := after default " + name, op);
+        }
+        locals = new HashMap<>();
+        RegoModule.Rule rule = rules.computeIfAbsent(name, RegoModule.Rule::new);
+        if (rule.defaultValue != null) {
+            throw error("multiple defaults for " + name, op);
+        }
+        rule.defaultValue = parseTerm();
+    }
+
+    private void parseRule() {
+        Token nameToken = expect(Type.IDENT);
+        String name = nameToken.text();
+        if (peek().is(Type.LBRACKET) || peek().isKeyword("contains")) {
+            throw error("partial rules are not supported: " + name, nameToken);
+        }
+
+        // The value may refer to variables bound in the body, so it is parsed after the body
+        int valueStart = -1;
+        if (peek().is(Type.ASSIGN) || peek().is(Type.UNIFY)) {
+            next();
+            valueStart = pos;
+            skipValue();
+        }
+        boolean hasValue = valueStart >= 0;
+
+        locals = new HashMap<>();
+        List<RegoModule.Expr> exprs = new ArrayList<>();
+        if (peek().isKeyword("if")) {
+            next();
+            if (peek().is(Type.LBRACE)) {
+                parseBlock(exprs);
+            } else {
+                exprs.add(parseExpr());
+            }
+        } else if (peek().is(Type.LBRACE)) {
+            parseBlock(exprs);
+        } else if (!hasValue) {
+            throw error("expected rule body for " + name, peek());
+        }
+
+        if (peek().isKeyword("else")) {
+            throw error("else is not supported", peek());
+        }
+
+        RegoModule.Term value = new RegoModule.Constant(Boolean.TRUE);
+        if (hasValue) {
+            int bodyEnd = pos;
+            pos = valueStart;
+            value = parseTerm();
+            pos = bodyEnd;
+        }
+
+        rules.computeIfAbsent(name, RegoModule.Rule::new).bodies.add(
+                new RegoModule.Body(exprs.toArray(new RegoModule.Expr[0]), locals.size(), value));
+    }
+
+    private void skipValue() {
+        int depth = 0;
+        while (!peek().is(Type.EOF)) {
+            Token token = peek();
+            if (depth == 0 && (token.is(Type.NEWLINE) || token.is(Type.LBRACE) || token.isKeyword("if"))) {
+                return;
+            }
+            if (token.is(Type.LBRACKET) || token.is(Type.LPAREN)) {
+                depth++;
+            } else if (token.is(Type.RBRACKET) || token.is(Type.RPAREN)) {
+                depth--;
+            }
+            pos++;
+        }
+    }
+
+    private void parseBlock(List<RegoModule.Expr> exprs) {
+        expect(Type.LBRACE);
+        while (true) {
+            skipSeparators();
+            if (peek().is(Type.RBRACE)) {
+                next();
+                return;
+            }
+            exprs.add(parseExpr());
+            Token end = peek();
+            if (!end.is(Type.NEWLINE) && !end.is(Type.SEMICOLON) && !end.is(Type.RBRACE)) {
+                throw error("unexpected '" + end.text() + "'", end);
+            }
+        }
+    }
+
+    private RegoModule.Expr parseExpr() {
+        Token token = peek();
+        if (token.isKeyword("not")) {
+            next();
+            return new RegoModule.Not(parseExpr());
+        }
+        if (token.isKeyword("some") || token.isKeyword("every") || token.isKeyword("with")) {
+            throw error("'" + token.text() + "' is not supported", token);
+        }
+
+        // name := term, or name = term for a name that is not bound yet
+        if (token.is(Type.IDENT) && (peek(1).is(Type.ASSIGN) || (peek(1).is(Type.UNIFY) && !isBound(token.text())))) {
+            next();
+            next();
+            RegoModule.Term value = parseTerm();
+            if (locals.containsKey(token.text())) {
+                throw error("variable " + token.text() + " assigned more than once", token);
+            }
+            int slot = locals.size();
+            locals.put(token.text(), slot);
+            return new RegoModule.Assign(slot, value);
+        }
+
+        RegoModule.Term left = parseTerm();
+        Token op = peek();
+        RegoModule.Operator operator = COMPARISONS.get(op.type());
+        if (operator == null && op.is(Type.UNIFY)) {
+            operator = RegoModule.Operator.EQ;
+        } else if (operator == null && op.isKeyword("in")) {
+            operator = RegoModule.Operator.IN;
+        }
+        if (operator == null) {
+            return new RegoModule.Truthy(left);
+        }
+        next();
+        return new RegoModule.Compare(operator, left, parseTerm());
+    }
+
+    private RegoModule.Term parseTerm() {
+        RegoModule.Term term = parsePrimary();
+        while (true) {
+            if (peek().is(Type.DOT) && peek(1).is(Type.IDENT)) {
+                next();
+                term = new RegoModule.Select(term, new RegoModule.Constant(next().text()));
+            } else if (peek().is(Type.LBRACKET)) {
+                next();
+                RegoModule.Term key = parseTerm();
+                expect(Type.RBRACKET);
+                term = new RegoModule.Select(term, key);
+            } else {
+                return term;
+            }
+        }
+    }
+
+    private RegoModule.Term parsePrimary() {
+        Token token = next();
+        switch (token.type()) {
+            case STRING:
+                return new RegoModule.Constant(token.text());
+            case NUMBER:
+                return new RegoModule.Constant(new BigDecimal(token.text()));
+            case LPAREN: {
+                RegoModule.Term inner = parseTerm();
+                expect(Type.RPAREN);
+                return inner;
+            }
+            case LBRACKET: {
+                List<RegoModule.Term> items = new ArrayList<>();
+                skipNewlines();
+                while (!peek().is(Type.RBRACKET)) {
+                    items.add(parseTerm());
+                    skipNewlines();
+                    if (!peek().is(Type.RBRACKET)) {
+                        expect(Type.COMMA);
+                        skipNewlines();
+                    }
+                }
+                next();
+                return new RegoModule.ArrayLiteral(items.toArray(new RegoModule.Term[0]));
+            }
+            case IDENT:
+                return parseIdentifier(token);
+            default:
+                throw error("unexpected '" + token.text() + "'", token);
+        }
+    }
+
+    private RegoModule.Term parseIdentifier(Token token) {
+        switch (token.text()) {
+            case "true":
+                return new RegoModule.Constant(Boolean.TRUE);
+            case "false":
+                return new RegoModule.Constant(Boolean.FALSE);
+            case "null":
+                return new RegoModule.Constant(null);
+            default:
+                break;
+        }
+
+        // Function call: name(.name)* followed by '('
+        int lookahead = 0;
+        while (peek(lookahead).is(Type.DOT) && peek(lookahead + 1).is(Type.IDENT)) {
+            lookahead += 2;
+        }
+        if (peek(lookahead).is(Type.LPAREN)) {
+            StringBuilder name = new StringBuilder(token.text());
+            for (int i = 0; i < lookahead; i += 2) {
+                next();
+                name.append('.').append(next().text());
+            }
+            expect(Type.LPAREN);
+            List<RegoModule.Term> args = new ArrayList<>();
+            skipNewlines();
+            while (!peek().is(Type.RPAREN)) {
+                args.add(parseTerm());
+                skipNewlines();
+                if (!peek().is(Type.RPAREN)) {
+                    expect(Type.COMMA);
+                    skipNewlines();
+                }
+            }
+            next();
+            String function = name.toString();
+            return new RegoModule.Call(function, RegoBuiltins.resolve(function, args.size(), token.line()),
+                    args.toArray(new RegoModule.Term[0]));
+        }
+
+        String name = token.text();
+        Integer slot = locals.get(name);
+        if (slot != null) {
+            return new RegoModule.LocalRef(slot);
+        }
+        if (ruleNames.contains(name)) {
+            return new RegoModule.RuleRef(name);
+        }
+        if (name.equals("input")) {
+            return new RegoModule.InputRef();
+        }
+        throw error("unknown identifier '" + name + "'", token);
+    }
+
+    private boolean isBound(String name) {
+        return locals.containsKey(name) || ruleNames.contains(name) || name.equals("input");
+    }
+
+    // Rule heads start a line at nesting depth zero, so every rule name is known before bodies refer to it
+    private static Set<String> scanRuleNames(List<Token> tokens) {
+        Set<String> names = new HashSet<>();
+        int depth = 0;
+        boolean lineStart = true;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            switch (token.type()) {
+                case LBRACE, LBRACKET, LPAREN -> depth++;
+                case RBRACE, RBRACKET, RPAREN -> depth--;
+                default -> {
+                }
+            }
+            if (depth == 0 && lineStart && token.is(Type.IDENT)) {
+                if (token.isKeyword("default") && i + 1 < tokens.size()) {
+                    names.add(tokens.get(i + 1).text());
+                } else if (!token.isKeyword("package") && !token.isKeyword("import") && i + 1 < tokens.size()) {
+                    Token following = tokens.get(i + 1);
+                    if (following.isKeyword("if") || following.is(Type.LBRACE)
+                            || following.is(Type.ASSIGN) || following.is(Type.UNIFY)) {
+                        names.add(token.text());
+                    }
+                }
+            }
+            lineStart = token.is(Type.NEWLINE) || (lineStart && depth == 0 && token.is(Type.SEMICOLON));
+        }
+        return names;
+    }
+
+    private String parseDottedName() {
+        StringBuilder name = new StringBuilder(expect(Type.IDENT).text());
+        while (peek().is(Type.DOT)) {
+            next();
+            name.append('.').append(expect(Type.IDENT).text());
+        }
+        return name.toString();
+    }
+
+    private void skipSeparators() {
+        while (peek().is(Type.NEWLINE) || peek().is(Type.SEMICOLON)) {
+            pos++;
+        }
+    }
+
+    private void skipNewlines() {
+        while (peek().is(Type.NEWLINE)) {
+            pos++;
+        }
+    }
+
+    private Token peek() {
+        return tokens.get(pos);
+    }
+
+    private Token peek(int offset) {
+        return tokens.get(Math.min(pos + offset, tokens.size() - 1));
+    }
+
+    private Token next() {
+        Token token = tokens.get(pos);
+        if (!token.is(Type.EOF)) {
+            pos++;
+        }
+        return token;
+    }
+
+    private Token expect(Type type) {
+        Token token = next();
+        if (!token.is(type)) {
+            throw error("expected " + type + " but found '" + token.text() + "'", token);
+        }
+        return token;
+    }
+
+    private void expectKeyword(String keyword) {
+        Token token = next();
+        if (!token.isKeyword(keyword)) {
+            throw error("expected '" + keyword + "'", token);
+        }
+    }
+
+    private static RegoParseException error(String message, Token token) {
+        return new RegoParseException(message, token.line());
+    }
+}
@@ -2,13 +2,23 @@
 package com.gatekeeper.repository;
 
 import com.gatekeeper.model.AuditLog;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
-import java.util.List;
 
+// Audit queries are bounded keyset pages over (timestamp, id), which stay index-only seeks on the
+// (user_id|resource, timestamp, id) indexes however deep the page. Bulk reads go through
+// AuditExportService, which streams rows over JDBC.
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-    List<AuditLog> findByUserIdAndTimestampBetween(String userId, LocalDateTime start, LocalDateTime end);
-    List<AuditLog> findByResourceAndTimestampBetween(String resource, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+    // Start with ScrollPosition.keyset(); continue from window.positionAt(window.size() - 1)
+    Window<AuditLog> findByUserIdAndTimestampBetweenOrderByTimestampAscIdAsc(
+            String userId, LocalDateTime start, LocalDateTime end, ScrollPosition position, Limit limit);
+
+    Window<AuditLog> findByResourceAndTimestampBetweenOrderByTimestampAscIdAsc(
+            String resource, LocalDateTime start, LocalDateTime end, ScrollPosition position, Limit limit);
+}
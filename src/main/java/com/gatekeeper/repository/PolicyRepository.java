@@ -12,6 +12,6 @@ public interface PolicyRepository extends JpaRepository<Policy, Long> {
     List<Policy> findByActiveTrue();
     List<Policy> findByResourceAndActiveTrue(String resource);
 
-    @Query("SELECT p FROM Policy p WHERE p.active = true ORDER BY p.priority DESC")
+    @Query("SELECT p FROM Policy p WHERE p.active = true ORDER BY p.priority DESC, p.id ASC")
     List<Policy> findActivePoliciesByPriority();
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.gatekeeper.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Keeps the monthly partitions of audit_logs (see scripts/init-db.sql) ahead of the clock, and
+// enforces retention by dropping whole expired partitions instead of deleting rows. Does nothing
+// when audit_logs is a plain table.
+@Service
+@Slf4j
+public class AuditPartitionMaintainer {
+
+    private static final String TABLE = "audit_logs";
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public AuditPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                    @Value("${gatekeeper.audit.partitions.months-ahead:2}") int monthsAhead,
+                                    @Value("${gatekeeper.audit.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${gatekeeper.audit.partitions.maintenance-cron:0 15 0 * * *}")
+    public void maintainPartitions() {
+        try {
+            if (!isPartitioned()) {
+                log.debug("{} is not partitioned; skipping partition maintenance", TABLE);
+                return;
+            }
+
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= monthsAhead; i++) {
+                createPartition(current.plusMonths(i));
+            }
+            if (retentionMonths > 0) {
+                dropPartitionsBefore(current.minusMonths(retentionMonths));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Audit partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                        "WHERE c.relname = ? AND pg_table_is_visible(c.oid)", Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        try {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+        } catch (DataAccessException e) {
+            // Typically rows for this month already sit in the default partition
+            log.warn("Could not create audit partition {}: {}", partition, e.getMessage());
+        }
+    }
+
+    private void dropPartitionsBefore(YearMonth cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?", String.class, TABLE);
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped expired audit partition {}", partition);
+            }
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s_%04d_%02d", TABLE, month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,65 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.model.AuditLog;
+import com.gatekeeper.repository.AuditLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Read side of the audit trail. Queries return keyset pages of at most max-page-size records; a page
+// ends with the cursor of its last record, which is where the next page starts.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditQueryService {
+
+    private final AuditLogRepository auditLogRepository;
+
+    @Value("${gatekeeper.audit.query.max-page-size:1000}")
+    private int maxPageSize = 1000;
+
+    // nextCursor is null on the last page
+    public record AuditPage(List<AuditLog> records, String nextCursor) {
+    }
+
+    public AuditPage findByUser(String userId, LocalDateTime start, LocalDateTime end,
+                                AuditExportService.Cursor after, int pageSize) {
+        return page(auditLogRepository.findByUserIdAndTimestampBetweenOrderByTimestampAscIdAsc(
+                userId, start, end, positionAfter(after), limit(pageSize)));
+    }
+
+    public AuditPage findByResource(String resource, LocalDateTime start, LocalDateTime end,
+                                    AuditExportService.Cursor after, int pageSize) {
+        return page(auditLogRepository.findByResourceAndTimestampBetweenOrderByTimestampAscIdAsc(
+                resource, start, end, positionAfter(after), limit(pageSize)));
+    }
+
+    private static ScrollPosition positionAfter(AuditExportService.Cursor after) {
+        if (after == null) {
+            return ScrollPosition.keyset();
+        }
+        return ScrollPosition.forward(Map.of("timestamp", after.timestamp(), "id", after.id()));
+    }
+
+    private static AuditPage page(Window<AuditLog> window) {
+        List<AuditLog> records = window.getContent();
+        String nextCursor = null;
+        if (window.hasNext() && !records.isEmpty()) {
+            AuditLog last = records.get(records.size() - 1);
+            nextCursor = new AuditExportService.Cursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new AuditPage(records, nextCursor);
+    }
+
+    private Limit limit(int pageSize) {
+        return Limit.of(Math.max(1, Math.min(pageSize, maxPageSize)));
+    }
+}
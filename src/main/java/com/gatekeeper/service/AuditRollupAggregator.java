@@ -0,0 +1,157 @@
+package com.gatekeeper.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts cache-hit decisions in memory per user, resource, action, decision and minute, and writes
+// each finished minute as one audit_rollups row instead of one audit_logs row per decision.
+@Service
+@Slf4j
+public class AuditRollupAggregator implements SmartLifecycle {
+
+    private static final String INSERT_SQL = "INSERT INTO audit_rollups (bucket_start, user_id, resource, action, " +
+            "decision, hit_count) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // A minute is flushed only once it has been closed for this long, so increments in progress still land
+    private static final long CLOSE_GRACE_SECONDS = 5;
+
+    // Closed buckets stay in the map this long before they are removed; see flush
+    private static final long RETAIN_CLOSED_MINUTES = 1;
+
+    private record Key(LocalDateTime bucketStart, String userId, String resource, String action, String decision) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxKeys;
+    private final Map<Key, LongAdder> counts = new ConcurrentHashMap<>();
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+
+    public AuditRollupAggregator(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${gatekeeper.audit.rollup.max-keys:100000}") int maxKeys) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxKeys = maxKeys;
+
+        Gauge.builder("gatekeeper.audit.rollup.keys", counts, Map::size).register(meterRegistry);
+        registerCounter(meterRegistry, "recorded", recorded);
+        registerCounter(meterRegistry, "dropped", dropped);
+        registerCounter(meterRegistry, "failed", failed);
+        FunctionCounter.builder("gatekeeper.audit.rollup.rows", rowsWritten, AtomicLong::get).register(meterRegistry);
+    }
+
+    public void record(String userId, String resource, String action, String decision, LocalDateTime timestamp) {
+        LocalDateTime bucketStart = (timestamp != null ? timestamp : LocalDateTime.now()).truncatedTo(ChronoUnit.MINUTES);
+        Key key = new Key(bucketStart, userId, resource, action, decision);
+
+        LongAdder count = counts.get(key);
+        if (count == null) {
+            if (counts.size() >= maxKeys) {
+                if (dropped.incrementAndGet() % 1000 == 1) {
+                    log.warn("Audit rollup holds {} keys, dropped {} cache-hit records so far", maxKeys, dropped.get());
+                }
+                return;
+            }
+            count = counts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+        recorded.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${gatekeeper.audit.rollup.flush-interval-ms:15000}")
+    public void flushClosedBuckets() {
+        flush(LocalDateTime.now().minusSeconds(CLOSE_GRACE_SECONDS).truncatedTo(ChronoUnit.MINUTES));
+    }
+
+    // Writes the counts of every bucket that started before the cutoff. record() increments an adder it
+    // looked up earlier, so an adder removed from the map could still be incremented afterwards and that
+    // hit would be lost. Closed buckets are therefore drained with sumThenReset and kept, and a late
+    // increment is written by the next flush as another row for the same minute. Buckets are only
+    // removed once they have been closed for RETAIN_CLOSED_MINUTES, long after any record() for them.
+    void flush(LocalDateTime cutoff) {
+        LocalDateTime expiry = cutoff.minusMinutes(RETAIN_CLOSED_MINUTES);
+        List<Object[]> rows = new ArrayList<>();
+        Iterator<Map.Entry<Key, LongAdder>> entries = counts.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Key, LongAdder> entry = entries.next();
+            Key key = entry.getKey();
+            if (!key.bucketStart().isBefore(cutoff)) {
+                continue;
+            }
+            if (key.bucketStart().isBefore(expiry)) {
+                entries.remove();
+            }
+            long hits = entry.getValue().sumThenReset();
+            if (hits > 0) {
+                rows.add(new Object[]{Timestamp.valueOf(key.bucketStart()), key.userId(), key.resource(),
+                        key.action(), key.decision(), hits});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            rowsWritten.addAndGet(rows.size());
+            log.debug("Wrote {} audit rollup rows", rows.size());
+        } catch (Exception e) {
+            failed.addAndGet(rows.size());
+            log.error("Error writing {} audit rollup rows: ", rows.size(), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // Requests have stopped by now, so the still-open minute can be written as well
+    @Override
+    public void stop() {
+        running = false;
+        flush(LocalDateTime.MAX);
+        log.info("Audit rollup stopped: recorded={}, rows written={}, dropped={}, failed={}",
+                recorded.get(), rowsWritten.get(), dropped.get(), failed.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Same shutdown phase as the audit writer: after the web server has stopped accepting requests
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private static void registerCounter(MeterRegistry meterRegistry, String outcome, AtomicLong counter) {
+        FunctionCounter.builder("gatekeeper.audit.rollup.records", counter, AtomicLong::get)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
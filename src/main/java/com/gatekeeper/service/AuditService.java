@@ -6,10 +6,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gatekeeper.model.AccessDecision;
 import com.gatekeeper.model.AccessRequest;
 import com.gatekeeper.model.AuditLog;
-import com.gatekeeper.repository.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -17,11 +16,42 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class AuditService {
 
-    private final AuditLogRepository auditLogRepository;
+    // How decisions served from the cache are audited
+    public enum CacheHitAuditMode {
+        NONE,   // not audited
+        ROLLUP, // counted per user, resource, action, decision and minute (audit_rollups)
+        FULL    // one audit_logs row each, like evaluated decisions
+    }
+
+    private final AuditWriter auditWriter;
+    private final AuditRollupAggregator auditRollupAggregator;
     private final ObjectMapper objectMapper;
 
-    @Async
+    @Value("${gatekeeper.audit.enabled:true}")
+    private boolean auditEnabled;
+
+    @Value("${gatekeeper.audit.cache-hits:ROLLUP}")
+    private CacheHitAuditMode cacheHitAuditMode = CacheHitAuditMode.ROLLUP;
+
+    public void logCacheHit(AccessRequest request, AccessDecision decision) {
+        if (!auditEnabled || request.isSynthetic()) {
+            return;
+        }
+        switch (cacheHitAuditMode) {
+            case ROLLUP -> auditRollupAggregator.record(request.getUserId(), request.getResource(),
+                    request.getAction(), decision.getDecision(), request.getTimestamp());
+            case FULL -> logAccess(request, decision);
+            case NONE -> {
+            }
+        }
+    }
+
+    // Only builds the record; persistence happens in batches on the audit writer thread
     public void logAccess(AccessRequest request, AccessDecision decision) {
+        if (!auditEnabled || request.isSynthetic()) {
+            return;
+        }
+
         try {
             AuditLog auditLog = new AuditLog();
             auditLog.setUserId(request.getUserId());
@@ -41,12 +71,13 @@ public class AuditService {
                 auditLog.setRequestContext("{}");
             }
 
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log saved for user: {} accessing resource: {}",
-                    request.getUserId(), request.getResource());
+            if (auditWriter.enqueue(auditLog)) {
+                log.debug("Audit log queued for user: {} accessing resource: {}",
+                        request.getUserId(), request.getResource());
+            }
 
         } catch (Exception e) {
-            log.error("Error saving audit log: ", e);
+            log.error("Error queueing audit log: ", e);
         }
     }
 }
\ No newline at end of file
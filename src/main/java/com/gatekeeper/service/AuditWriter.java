@@ -0,0 +1,200 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.model.AuditLog;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Write-behind pipeline for audit rows: callers enqueue into a bounded queue and a single
+// writer thread drains it into multi-row batch inserts.
+@Service
+@Slf4j
+public class AuditWriter implements SmartLifecycle {
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs (user_id, resource, action, decision, reason, " +
+            "client_ip, user_agent, request_context, timestamp, evaluation_time_ms) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public enum OverflowPolicy {
+        DROP,  // reject immediately when the queue is full
+        BLOCK  // wait up to the enqueue timeout, then reject
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AuditLog> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long enqueueTimeoutNanos;
+    private final Duration shutdownTimeout;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditWriter(JdbcTemplate jdbcTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${gatekeeper.audit.queue-capacity:50000}") int queueCapacity,
+                       @Value("${gatekeeper.audit.batch-size:500}") int batchSize,
+                       @Value("${gatekeeper.audit.flush-interval:200ms}") Duration flushInterval,
+                       @Value("${gatekeeper.audit.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                       @Value("${gatekeeper.audit.enqueue-timeout:5ms}") Duration enqueueTimeout,
+                       @Value("${gatekeeper.audit.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("gatekeeper.audit.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        registerCounter(meterRegistry, "enqueued", enqueued);
+        registerCounter(meterRegistry, "dropped", dropped);
+        registerCounter(meterRegistry, "written", written);
+        registerCounter(meterRegistry, "failed", failed);
+    }
+
+    public boolean enqueue(AuditLog auditLog) {
+        boolean accepted;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                accepted = queue.offer(auditLog, enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(auditLog);
+        }
+
+        if (accepted) {
+            enqueued.incrementAndGet();
+        } else if (dropped.incrementAndGet() % 1000 == 1) {
+            log.warn("Audit queue full, dropped {} audit records so far", dropped.get());
+        }
+        return accepted;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit writer started (batch size {}, flush interval {}ms, overflow policy {})",
+                batchSize, TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos), overflowPolicy);
+    }
+
+    @Override
+    public void stop() {
+        // The writer keeps draining until the queue is empty once running is cleared
+        running = false;
+        try {
+            writerThread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warn("Audit writer did not finish within {}; {} records left unwritten", shutdownTimeout, queue.size());
+        }
+        log.info("Audit writer stopped: enqueued={}, written={}, dropped={}, failed={}",
+                enqueued.get(), written.get(), dropped.get(), failed.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop only after the web server has stopped accepting requests
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private void drainLoop() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+
+        while (true) {
+            try {
+                if (batch.isEmpty()) {
+                    AuditLog first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        if (!running) {
+                            return;
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    deadline = System.nanoTime() + flushIntervalNanos;
+                }
+
+                queue.drainTo(batch, batchSize - batch.size());
+
+                long remaining = deadline - System.nanoTime();
+                if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                    writeBatch(batch);
+                    batch.clear();
+                    continue;
+                }
+
+                AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next != null) {
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Stop waiting but still flush whatever is already queued
+                running = false;
+            } catch (Exception e) {
+                log.error("Unexpected error in audit writer: ", e);
+            }
+        }
+    }
+
+    private void writeBatch(List<AuditLog> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, auditLog) -> {
+                ps.setString(1, auditLog.getUserId());
+                ps.setString(2, auditLog.getResource());
+                ps.setString(3, auditLog.getAction());
+                ps.setString(4, auditLog.getDecision());
+                ps.setString(5, auditLog.getReason());
+                ps.setString(6, auditLog.getClientIp());
+                ps.setString(7, auditLog.getUserAgent());
+                ps.setString(8, auditLog.getRequestContext());
+                ps.setTimestamp(9, auditLog.getTimestamp() != null ? Timestamp.valueOf(auditLog.getTimestamp()) : null);
+                ps.setLong(10, auditLog.getEvaluationTimeMs());
+            });
+            written.addAndGet(batch.size());
+            log.debug("Wrote {} audit records", batch.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            log.error("Error writing batch of {} audit records: ", batch.size(), e);
+        }
+    }
+
+    private static void registerCounter(MeterRegistry meterRegistry, String outcome, AtomicLong counter) {
+        FunctionCounter.builder("gatekeeper.audit.records", counter, AtomicLong::get)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,87 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.model.AccessDecision;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Latency of each authorization stage and the outcome of every decision. All meters are registered up
+// front, so recording on the request path never goes through a registry lookup. Tags are limited to
+// fixed enums; users, resources and actions are deliberately never used as tag values.
+@Component
+public class AuthorizationMetrics {
+
+    public enum Stage {
+        CACHE_LOOKUP("cache_lookup"),
+        POLICY_LOOKUP("policy_lookup"),
+        EVALUATION("evaluation"),
+        CACHE_WRITE("cache_write"),
+        AUDIT("audit");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    // How a decision was obtained: from the cache, from another request's in-flight evaluation, by
+    // evaluating the policies, or as the deny returned when authorization failed
+    public enum Source {
+        CACHE("cache"),
+        COALESCED("coalesced"),
+        EVALUATED("evaluated"),
+        ERROR("error");
+
+        private final String tag;
+
+        Source(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Timer[] stages = new Timer[Stage.values().length];
+    private final Timer[] requests = new Timer[Source.values().length];
+    private final Counter[] permits = new Counter[Source.values().length];
+    private final Counter[] denies = new Counter[Source.values().length];
+
+    public AuthorizationMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stages[stage.ordinal()] = Timer.builder("gatekeeper.authorization.stage")
+                    .description("Time spent in one stage of an authorization")
+                    .tag("stage", stage.tag)
+                    .register(meterRegistry);
+        }
+        for (Source source : Source.values()) {
+            requests[source.ordinal()] = Timer.builder("gatekeeper.authorization.requests")
+                    .description("End-to-end latency of single authorization requests")
+                    .tag("source", source.tag)
+                    .register(meterRegistry);
+            permits[source.ordinal()] = decisionCounter(meterRegistry, source, "permit");
+            denies[source.ordinal()] = decisionCounter(meterRegistry, source, "deny");
+        }
+    }
+
+    public void recordStage(Stage stage, long startNanos) {
+        stages[stage.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRequest(Source source, long startNanos) {
+        requests[source.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDecision(Source source, AccessDecision decision) {
+        (decision.isAllowed() ? permits : denies)[source.ordinal()].increment();
+    }
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, Source source, String decision) {
+        return Counter.builder("gatekeeper.authorization.decisions")
+                .description("Authorization decisions by how they were obtained")
+                .tag("source", source.tag)
+                .tag("decision", decision)
+                .register(meterRegistry);
+    }
+}
@@ -1,18 +1,31 @@
 package com.gatekeeper.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gatekeeper.model.AccessDecision;
 import com.gatekeeper.model.AccessRequest;
 import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+import com.gatekeeper.model.PolicyTrace;
+import com.gatekeeper.model.ReasonCode;
+import com.gatekeeper.service.AuthorizationMetrics.Source;
+import com.gatekeeper.service.AuthorizationMetrics.Stage;
+import com.gatekeeper.util.CombiningAlgorithm;
+import com.gatekeeper.util.DecisionKey;
 import com.gatekeeper.util.PolicyEvaluator;
+import com.gatekeeper.util.PolicySetEvaluator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
@@ -22,129 +35,330 @@ public class AuthorizationService {
     private final PolicyService policyService;
     private final AuditService auditService;
     private final PolicyEvaluator policyEvaluator;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final DecisionCache decisionCache;
+    private final PolicySetEvaluator policySetEvaluator;
+    private final AuthorizationMetrics metrics;
+
+    @Value("${gatekeeper.evaluation.combining-algorithm:DENY_OVERRIDES}")
+    private CombiningAlgorithm combiningAlgorithm = CombiningAlgorithm.DENY_OVERRIDES;
+
+    // Evaluations currently running on this node, so concurrent misses for one key share a single result
+    private final ConcurrentMap<DecisionKey, CompletableFuture<AccessDecision>> inFlight = new ConcurrentHashMap<>();
 
     public AccessDecision authorize(AccessRequest request) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
 
         try {
             // Check cache first
-            String cacheKey = generateCacheKey(request);
-            AccessDecision cachedDecision = getCachedDecision(cacheKey);
+            DecisionKey cacheKey = generateCacheKey(request);
+            AccessDecision cachedDecision = decisionCache.get(cacheKey);
+            recordStage(request, Stage.CACHE_LOOKUP, startTime);
             if (cachedDecision != null) {
                 log.debug("Cache hit for access request: {}", cacheKey);
-                return cachedDecision;
+                auditCacheHit(request, cachedDecision);
+                return completed(request, Source.CACHE, cachedDecision, startTime);
             }
 
-            // Evaluate policies
-            AccessDecision decision = evaluateAccess(request);
-            decision.setEvaluationTimeMs(System.currentTimeMillis() - startTime);
+            // Join an evaluation of the same key that is already running instead of repeating it
+            CompletableFuture<AccessDecision> flight = new CompletableFuture<>();
+            CompletableFuture<AccessDecision> leader = inFlight.putIfAbsent(cacheKey, flight);
+            if (leader != null) {
+                log.debug("Waiting on in-flight evaluation for access request: {}", cacheKey);
+                AccessDecision shared = leader.join();
+                auditCacheHit(request, shared);
+                return completed(request, Source.COALESCED, shared, startTime);
+            }
 
-            // Cache the decision
-            cacheDecision(cacheKey, decision);
+            try {
+                // Evaluate policies
+                AccessDecision decision = evaluateAccess(request);
+                decision.setEvaluationTimeMs(elapsedMillis(startTime));
 
-            // Audit the request
-            auditService.logAccess(request, decision);
+                // Cache the decision before releasing waiters, so later callers hit the cache
+                long cacheWriteStart = System.nanoTime();
+                cacheDecision(request, cacheKey, decision);
+                recordStage(request, Stage.CACHE_WRITE, cacheWriteStart);
+                flight.complete(decision);
 
-            return decision;
+                // Audit the request
+                auditAccess(request, decision);
 
+                return completed(request, Source.EVALUATED, decision, startTime);
+            } catch (Throwable t) {
+                flight.completeExceptionally(t);
+                throw t;
+            } finally {
+                inFlight.remove(cacheKey, flight);
+            }
+
+        } catch (CompletionException e) {
+            Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            log.error("Error during authorization: ", cause);
+            return completed(request, Source.ERROR, errorDecision(request, cause, startTime), startTime);
         } catch (Exception e) {
             log.error("Error during authorization: ", e);
-            AccessDecision denyDecision = new AccessDecision();
-            denyDecision.setAllowed(false);
-            denyDecision.setDecision("DENY");
-            denyDecision.setReason("Authorization service error: " + e.getMessage());
-            denyDecision.setEvaluationTimeMs(System.currentTimeMillis() - startTime);
-
-            auditService.logAccess(request, denyDecision);
-            return denyDecision;
+            return completed(request, Source.ERROR, errorDecision(request, e, startTime), startTime);
+        }
+    }
+
+    // Decisions are returned in request order; all requests are expected to share one subject
+    public List<AccessDecision> authorizeBatch(List<AccessRequest> requests) {
+        long startTime = System.nanoTime();
+
+        List<DecisionKey> cacheKeys = new ArrayList<>(requests.size());
+        boolean synthetic = true;
+        for (AccessRequest request : requests) {
+            cacheKeys.add(generateCacheKey(request));
+            synthetic &= request.isSynthetic();
+        }
+
+        // One local pass plus a single Redis multi-get for everything not held locally
+        long cacheLookupStart = System.nanoTime();
+        Map<DecisionKey, AccessDecision> cached = decisionCache.getAll(cacheKeys);
+        if (!synthetic) {
+            metrics.recordStage(Stage.CACHE_LOOKUP, cacheLookupStart);
+        }
+        log.debug("Batch authorization: {} requests, {} cache hits", requests.size(), cached.size());
+
+        // Decisions this batch evaluated (written to the cache at the end) or took from another evaluation
+        Map<DecisionKey, AccessDecision> evaluated = new LinkedHashMap<>();
+        Map<DecisionKey, AccessDecision> shared = new HashMap<>();
+        // Flights this batch leads. They stay registered until the decisions are in the cache, so
+        // concurrent requests for these keys join them instead of evaluating again.
+        Map<DecisionKey, CompletableFuture<AccessDecision>> flights = new HashMap<>();
+
+        List<AccessDecision> decisions = new ArrayList<>(requests.size());
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                AccessRequest request = requests.get(i);
+                DecisionKey cacheKey = cacheKeys.get(i);
+
+                AccessDecision decision = cached.get(cacheKey);
+                Source source = Source.CACHE;
+                if (decision == null) {
+                    decision = evaluated.containsKey(cacheKey) ? evaluated.get(cacheKey) : shared.get(cacheKey);
+                    source = Source.COALESCED;
+                }
+                if (decision != null) {
+                    auditCacheHit(request, decision);
+                } else {
+                    try {
+                        CompletableFuture<AccessDecision> flight = new CompletableFuture<>();
+                        CompletableFuture<AccessDecision> leader = inFlight.putIfAbsent(cacheKey, flight);
+                        if (leader != null) {
+                            log.debug("Waiting on in-flight evaluation for access request: {}", cacheKey);
+                            decision = leader.join();
+                            shared.put(cacheKey, decision);
+                            auditCacheHit(request, decision);
+                        } else {
+                            flights.put(cacheKey, flight);
+                            decision = evaluateAccess(request);
+                            decision.setEvaluationTimeMs(elapsedMillis(startTime));
+                            if (request.isSynthetic()) {
+                                decisionCache.putLocal(cacheKey, decision);
+                                shared.put(cacheKey, decision);
+                            } else {
+                                evaluated.put(cacheKey, decision);
+                            }
+                            flight.complete(decision);
+                            auditAccess(request, decision);
+                            source = Source.EVALUATED;
+                        }
+                    } catch (Exception e) {
+                        // A failed evaluation is not shared; later requests for the key evaluate again
+                        CompletableFuture<AccessDecision> flight = flights.remove(cacheKey);
+                        if (flight != null) {
+                            flight.completeExceptionally(e);
+                            inFlight.remove(cacheKey, flight);
+                        }
+                        Exception cause = e instanceof CompletionException && e.getCause() instanceof Exception c ? c : e;
+                        log.error("Error during batch authorization: ", cause);
+                        decision = errorDecision(request, cause, startTime);
+                        source = Source.ERROR;
+                    }
+                }
+                decisions.add(completed(request, source, decision, startTime));
+            }
+
+            // Write all fresh decisions in one pipeline
+            long cacheWriteStart = System.nanoTime();
+            decisionCache.putAll(evaluated);
+            if (!synthetic) {
+                metrics.recordStage(Stage.CACHE_WRITE, cacheWriteStart);
+            }
+
+        } finally {
+            // Completed flights ignore this; it only releases waiters if the batch was cut short
+            flights.forEach((cacheKey, flight) -> {
+                flight.completeExceptionally(new IllegalStateException("Batch authorization did not finish"));
+                inFlight.remove(cacheKey, flight);
+            });
+        }
+        return decisions;
+    }
+
+    // Evaluates without the decision cache or request coalescing and attaches a per-policy trace. Policies
+    // are evaluated one at a time in priority order and stop where the regular path would stop, so the
+    // decision is the one authorize would return; policies after that point are NOT_EVALUATED.
+    public AccessDecision explain(AccessRequest request) {
+        long startTime = System.nanoTime();
+        try {
+            List<Policy> applicablePolicies = policyService.getApplicablePolicies(
+                    request.getResource(), request.getAction());
+            IntPredicate isDecisive = combiningAlgorithm.decisiveMatches(applicablePolicies);
+
+            Boolean[] results = new Boolean[applicablePolicies.size()];
+            List<PolicyTrace> trace = new ArrayList<>(applicablePolicies.size());
+            boolean decided = false;
+            for (int i = 0; i < results.length; i++) {
+                Policy policy = applicablePolicies.get(i);
+                if (decided) {
+                    trace.add(PolicyTrace.of(policy));
+                    continue;
+                }
+                PolicyTrace policyTrace = policyEvaluator.explain(policy, request);
+                trace.add(policyTrace);
+                // Errors count as no match, as they do on the regular path
+                results[i] = policyTrace.getOutcome() == PolicyTrace.Outcome.MATCH;
+                decided = results[i] && isDecisive.test(i);
+            }
+
+            AccessDecision decision = decide(applicablePolicies, results);
+            decision.setEvaluationTimeMs(elapsedMillis(startTime));
+            decision.setTrace(trace);
+            auditAccess(request, decision);
+            return decision;
+
+        } catch (Exception e) {
+            log.error("Error during explained authorization: ", e);
+            return errorDecision(request, e, startTime);
+        }
+    }
+
+    private AccessDecision errorDecision(AccessRequest request, Exception e, long startTime) {
+        AccessDecision denyDecision = new AccessDecision();
+        denyDecision.setAllowed(false);
+        denyDecision.setDecision("DENY");
+        denyDecision.setReasonCode(ReasonCode.ERROR);
+        denyDecision.setReason(ReasonCode.ERROR.describe(e.getMessage()));
+        denyDecision.setEvaluationTimeMs(elapsedMillis(startTime));
+
+        auditAccess(request, denyDecision);
+        return denyDecision;
+    }
+
+    private AccessDecision completed(AccessRequest request, Source source, AccessDecision decision, long startTime) {
+        if (!request.isSynthetic()) {
+            metrics.recordDecision(source, decision);
+            metrics.recordRequest(source, startTime);
         }
+        return decision;
+    }
+
+    // Warm-up requests run on cold code; their timings would skew the latency histograms
+    private void recordStage(AccessRequest request, Stage stage, long startNanos) {
+        if (!request.isSynthetic()) {
+            metrics.recordStage(stage, startNanos);
+        }
+    }
+
+    // Synthetic decisions stay on this node: the shared tier would hand them to other instances
+    private void cacheDecision(AccessRequest request, DecisionKey cacheKey, AccessDecision decision) {
+        if (request.isSynthetic()) {
+            decisionCache.putLocal(cacheKey, decision);
+        } else {
+            decisionCache.put(cacheKey, decision);
+        }
+    }
+
+    private void auditAccess(AccessRequest request, AccessDecision decision) {
+        long auditStart = System.nanoTime();
+        auditService.logAccess(request, decision);
+        recordStage(request, Stage.AUDIT, auditStart);
+    }
+
+    private void auditCacheHit(AccessRequest request, AccessDecision decision) {
+        long auditStart = System.nanoTime();
+        auditService.logCacheHit(request, decision);
+        recordStage(request, Stage.AUDIT, auditStart);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 
     private AccessDecision evaluateAccess(AccessRequest request) {
+        long policyLookupStart = System.nanoTime();
         List<Policy> applicablePolicies = policyService.getApplicablePolicies(
                 request.getResource(), request.getAction());
+        recordStage(request, Stage.POLICY_LOOKUP, policyLookupStart);
 
+        // Evaluate each policy; remote engines are queried once up front for the whole set.
+        // Results come back in priority order, ending at the first match that settles the outcome.
+        long evaluationStart = System.nanoTime();
+        Predicate<Policy> evaluation = policyEvaluator.forRequest(request, applicablePolicies);
+        Boolean[] results = policySetEvaluator.evaluate(applicablePolicies, evaluation,
+                combiningAlgorithm.decisiveMatches(applicablePolicies));
+        recordStage(request, Stage.EVALUATION, evaluationStart);
+        return decide(applicablePolicies, results);
+    }
+
+    // Combines per-policy results (null for policies that were not evaluated) into a decision
+    private AccessDecision decide(List<Policy> applicablePolicies, Boolean[] results) {
         List<String> appliedPolicies = new ArrayList<>();
-        boolean hasPermit = false;
-        boolean hasDeny = false;
-        String denyReason = null;
+        List<Long> appliedPolicyIds = new ArrayList<>();
+        Policy firstMatch = null;
+        Policy firstPermit = null;
+        Policy firstDeny = null;
 
-        // Evaluate each policy
-        for (Policy policy : applicablePolicies) {
-            try {
-                boolean result = policyEvaluator.evaluate(policy, request);
-                appliedPolicies.add(policy.getName());
-
-                if (result) {
-                    if (policy.getName().toLowerCase().contains("permit") ||
-                            policy.getName().toLowerCase().contains("allow") ||
-                            policy.getName().toLowerCase().contains("access")) {
-                        hasPermit = true;
-                    } else if (policy.getName().toLowerCase().contains("deny") ||
-                            policy.getName().toLowerCase().contains("block")) {
-                        hasDeny = true;
-                        denyReason = "Denied by policy: " + policy.getName();
-                        break; // Deny takes precedence
-                    } else {
-                        // Default behavior for policies that evaluate to true
-                        hasPermit = true;
-                    }
+        for (int i = 0; i < results.length; i++) {
+            Policy policy = applicablePolicies.get(i);
+            Boolean result = results[i];
+            if (result == null) {
+                continue;
+            }
+            appliedPolicies.add(policy.getName());
+            appliedPolicyIds.add(policy.getId());
+
+            if (result) {
+                if (firstMatch == null) {
+                    firstMatch = policy;
+                }
+                if (policy.getEffect() == PolicyEffect.DENY) {
+                    firstDeny = firstDeny != null ? firstDeny : policy;
+                } else {
+                    firstPermit = firstPermit != null ? firstPermit : policy;
                 }
-            } catch (Exception e) {
-                log.warn("Error evaluating policy {}: {}", policy.getName(), e.getMessage());
             }
         }
+        Policy deciding = combiningAlgorithm.decide(firstMatch, firstPermit, firstDeny);
 
         AccessDecision decision = new AccessDecision();
         decision.setEvaluatedAt(LocalDateTime.now());
 
-        if (hasDeny) {
+        if (deciding != null && deciding.getEffect() == PolicyEffect.DENY) {
             decision.setAllowed(false);
             decision.setDecision("DENY");
-            decision.setReason(denyReason);
-        } else if (hasPermit) {
+            decision.setReasonCode(ReasonCode.POLICY_DENY);
+            decision.setReason(ReasonCode.POLICY_DENY.describe(deciding.getName()));
+        } else if (deciding != null) {
             decision.setAllowed(true);
             decision.setDecision("PERMIT");
-            decision.setReason("Access granted by applicable policies");
+            decision.setReasonCode(ReasonCode.POLICY_PERMIT);
+            decision.setReason(ReasonCode.POLICY_PERMIT.describe(null));
         } else {
             decision.setAllowed(false);
             decision.setDecision("DENY");
-            decision.setReason("No applicable permit policies found");
+            decision.setReasonCode(ReasonCode.NO_PERMIT);
+            decision.setReason(ReasonCode.NO_PERMIT.describe(null));
         }
 
         decision.setAppliedPolicies(appliedPolicies);
+        decision.setAppliedPolicyIds(appliedPolicyIds);
         return decision;
     }
 
-    private String generateCacheKey(AccessRequest request) {
-        return String.format("access:%s:%s:%s:%s",
-                request.getUserId(),
-                request.getResource(),
-                request.getAction(),
-                Objects.hash(request.getContext(), request.getUserAttributes())
-        );
-    }
-
-    private AccessDecision getCachedDecision(String cacheKey) {
-        try {
-            Object cached = redisTemplate.opsForValue().get(cacheKey);
-            if (cached != null) {
-                return objectMapper.convertValue(cached, AccessDecision.class);
-            }
-        } catch (Exception e) {
-            log.warn("Error reading from cache: ", e);
-        }
-        return null;
-    }
-
-    private void cacheDecision(String cacheKey, AccessDecision decision) {
-        try {
-            // Cache for 5 minutes
-            redisTemplate.opsForValue().set(cacheKey, decision, 5, TimeUnit.MINUTES);
-        } catch (Exception e) {
-            log.warn("Error writing to cache: ", e);
-        }
+    DecisionKey generateCacheKey(AccessRequest request) {
+        return decisionCache.keyFor(policyService.getPolicyEpoch(), request);
     }
 }
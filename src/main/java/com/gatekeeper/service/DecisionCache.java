@@ -0,0 +1,223 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.model.AccessDecision;
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.util.DecisionKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Two-level cache for access decisions: a bounded in-process L1 in front of the shared Redis L2
+@Service
+@Slf4j
+public class DecisionCache {
+
+    private final RedisTemplate<byte[], byte[]> redisTemplate;
+    private final DecisionCodec decisionCodec;
+    private final Cache<DecisionKey, AccessDecision> localCache;
+    private final Duration redisTtl;
+    private final double earlyRefreshBeta;
+    private final Counter earlyRefreshes;
+    private final Counter decodeErrors;
+
+    // Fingerprint key, derived from the shared secret so all nodes produce the same cache keys
+    private final long keySeed0;
+    private final long keySeed1;
+
+    public DecisionCache(RedisTemplate<byte[], byte[]> decisionRedisTemplate,
+                         DecisionCodec decisionCodec,
+                         MeterRegistry meterRegistry,
+                         @Value("${gatekeeper.cache.decision.local.max-size:10000}") long localMaxSize,
+                         @Value("${gatekeeper.cache.decision.local.ttl:60s}") Duration localTtl,
+                         @Value("${gatekeeper.cache.decision.redis-ttl:5m}") Duration redisTtl,
+                         @Value("${gatekeeper.cache.decision.key-secret:${gatekeeper.jwt.secret}}") String keySecret,
+                         @Value("${gatekeeper.cache.decision.early-refresh-beta:1.0}") double earlyRefreshBeta) {
+        this.redisTemplate = decisionRedisTemplate;
+        this.decisionCodec = decisionCodec;
+        this.redisTtl = redisTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.earlyRefreshes = meterRegistry.counter("gatekeeper.cache.decision.early_refresh");
+        this.decodeErrors = meterRegistry.counter("gatekeeper.cache.decision.decode_errors");
+
+        ByteBuffer seed = ByteBuffer.wrap(sha256("decision-key:" + keySecret));
+        this.keySeed0 = seed.getLong();
+        this.keySeed1 = seed.getLong();
+
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+
+        // Hit/miss statistics are published as cache.* metrics with cache=decisions
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "decisions");
+    }
+
+    public DecisionKey keyFor(long policyEpoch, AccessRequest request) {
+        return DecisionKey.of(policyEpoch, request, keySeed0, keySeed1);
+    }
+
+    // Returns null on a miss, and also when this caller is picked to refresh an entry close to expiry
+    public AccessDecision get(DecisionKey cacheKey) {
+        AccessDecision decision = localCache.getIfPresent(cacheKey);
+        if (decision == null) {
+            decision = getFromRedis(cacheKey);
+            if (decision != null) {
+                localCache.put(cacheKey, decision);
+            }
+        }
+
+        if (decision != null && shouldRefreshEarly(decision)) {
+            earlyRefreshes.increment();
+            log.debug("Early refresh of cached decision: {}", cacheKey);
+            return null;
+        }
+        return decision;
+    }
+
+    public void put(DecisionKey cacheKey, AccessDecision decision) {
+        localCache.put(cacheKey, decision);
+        try {
+            redisTemplate.opsForValue().set(cacheKey.toBytes(), decisionCodec.encode(decision), redisTtl);
+        } catch (Exception e) {
+            log.warn("Error writing to cache: ", e);
+        }
+    }
+
+    // L1 only; Redis is left untouched
+    public void putLocal(DecisionKey cacheKey, AccessDecision decision) {
+        localCache.put(cacheKey, decision);
+    }
+
+    public Map<DecisionKey, AccessDecision> getAll(Collection<DecisionKey> cacheKeys) {
+        Map<DecisionKey, AccessDecision> found = new HashMap<>(localCache.getAllPresent(cacheKeys));
+
+        Set<DecisionKey> distinctMissing = new LinkedHashSet<>();
+        for (DecisionKey cacheKey : cacheKeys) {
+            if (!found.containsKey(cacheKey)) {
+                distinctMissing.add(cacheKey);
+            }
+        }
+        if (distinctMissing.isEmpty()) {
+            return found;
+        }
+
+        List<DecisionKey> missing = new ArrayList<>(distinctMissing);
+        List<byte[]> missingKeys = new ArrayList<>(missing.size());
+        for (DecisionKey cacheKey : missing) {
+            missingKeys.add(cacheKey.toBytes());
+        }
+
+        try {
+            List<byte[]> values = redisTemplate.opsForValue().multiGet(missingKeys);
+            if (values != null) {
+                Map<DecisionKey, AccessDecision> fromRedis = new HashMap<>();
+                for (int i = 0; i < missing.size(); i++) {
+                    AccessDecision cached = decode(missing.get(i), values.get(i));
+                    if (cached != null) {
+                        fromRedis.put(missing.get(i), cached);
+                    }
+                }
+                localCache.putAll(fromRedis);
+                found.putAll(fromRedis);
+            }
+        } catch (Exception e) {
+            log.warn("Error reading from cache: ", e);
+        }
+        return found;
+    }
+
+    public void putAll(Map<DecisionKey, AccessDecision> decisions) {
+        if (decisions.isEmpty()) {
+            return;
+        }
+        localCache.putAll(decisions);
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    decisions.forEach((cacheKey, decision) ->
+                            operations.opsForValue().set(cacheKey.toBytes(), decisionCodec.encode(decision), redisTtl));
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Error writing to cache: ", e);
+        }
+    }
+
+    // Drops this node's L1 entries; Redis entries are handled by the policy update listener
+    public void invalidateLocal() {
+        localCache.invalidateAll();
+        log.info("Local decision cache cleared");
+    }
+
+    public CacheStats getLocalStats() {
+        return localCache.stats();
+    }
+
+    // Probabilistic early expiration (XFetch): the chance of a refresh grows as the Redis entry nears its
+    // TTL, scaled by how long the decision took to compute, so a hot key is re-evaluated by one caller
+    // shortly before it expires instead of by every caller at once after it has.
+    private boolean shouldRefreshEarly(AccessDecision decision) {
+        if (earlyRefreshBeta <= 0 || decision.getEvaluatedAt() == null) {
+            return false;
+        }
+        long ageMs = Duration.between(decision.getEvaluatedAt(), LocalDateTime.now()).toMillis();
+        long remainingMs = redisTtl.toMillis() - ageMs;
+        long computeMs = Math.max(decision.getEvaluationTimeMs(), 1);
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        return -computeMs * earlyRefreshBeta * Math.log(random) >= remainingMs;
+    }
+
+    private AccessDecision getFromRedis(DecisionKey cacheKey) {
+        try {
+            return decode(cacheKey, redisTemplate.opsForValue().get(cacheKey.toBytes()));
+        } catch (Exception e) {
+            log.warn("Error reading from cache: ", e);
+        }
+        return null;
+    }
+
+    // A corrupt entry is a miss for its own key only; the re-evaluated decision overwrites it
+    private AccessDecision decode(DecisionKey cacheKey, byte[] cached) {
+        if (cached == null) {
+            return null;
+        }
+        try {
+            return decisionCodec.decode(cached);
+        } catch (RuntimeException e) {
+            decodeErrors.increment();
+            log.warn("Ignoring undecodable cached decision {}: {}", cacheKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
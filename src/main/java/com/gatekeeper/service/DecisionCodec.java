@@ -0,0 +1,216 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.model.AccessDecision;
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.ReasonCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// Binary layout of cached access decisions. Version 1:
+//   u8 version | u8 flags | u8 reason code | varlong evaluatedAt seconds (zigzag) | varint nanos
+//   | varlong evaluationTimeMs | varint policy count | policies | [varint length + UTF-8 reason]
+// Policies are varlong IDs, or length-prefixed UTF-8 names when FLAG_POLICY_NAMES is set. The reason
+// text is only stored when it cannot be rebuilt from the reason code and the applied policies.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DecisionCodec {
+
+    static final int VERSION = 1;
+
+    private static final int FLAG_ALLOWED = 1;
+    private static final int FLAG_POLICY_NAMES = 1 << 1;
+    private static final int FLAG_REASON_TEXT = 1 << 2;
+
+    private final PolicyService policyService;
+
+    public byte[] encode(AccessDecision decision) {
+        List<String> names = decision.getAppliedPolicies() != null ? decision.getAppliedPolicies() : List.of();
+        List<Long> ids = decision.getAppliedPolicyIds();
+        boolean writeNames = ids == null || ids.size() != names.size() || ids.stream().anyMatch(Objects::isNull);
+
+        // Decoding rebuilds the reason from the code and the last applied policy; store the text when that
+        // would not reproduce it (errors, or a deny decided by an earlier policy under permit-overrides)
+        ReasonCode reasonCode = decision.getReasonCode();
+        String lastPolicy = names.isEmpty() ? null : names.get(names.size() - 1);
+        boolean writeReason = reasonCode == null || reasonCode == ReasonCode.ERROR
+                || (reasonCode == ReasonCode.POLICY_DENY && lastPolicy == null)
+                || !Objects.equals(decision.getReason(), reasonCode.describe(lastPolicy));
+
+        int flags = (decision.isAllowed() ? FLAG_ALLOWED : 0)
+                | (writeNames ? FLAG_POLICY_NAMES : 0)
+                | (writeReason ? FLAG_REASON_TEXT : 0);
+
+        LocalDateTime evaluatedAt = decision.getEvaluatedAt() != null ? decision.getEvaluatedAt() : LocalDateTime.now();
+
+        Writer out = new Writer();
+        out.write(VERSION);
+        out.write(flags);
+        out.write(reasonCode != null ? reasonCode.getCode() : 0);
+        out.writeVarLong(zigzag(evaluatedAt.toEpochSecond(ZoneOffset.UTC)));
+        out.writeVarLong(evaluatedAt.getNano());
+        out.writeVarLong(decision.getEvaluationTimeMs());
+        out.writeVarLong(names.size());
+        if (writeNames) {
+            for (String name : names) {
+                out.writeString(name);
+            }
+        } else {
+            for (Long id : ids) {
+                out.writeVarLong(id);
+            }
+        }
+        if (writeReason) {
+            out.writeString(decision.getReason());
+        }
+        return out.toByteArray();
+    }
+
+    // Returns null for payloads of an unknown version, which callers treat as a cache miss. Truncated or
+    // corrupt payloads throw IllegalArgumentException.
+    public AccessDecision decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0 || bytes[0] != VERSION) {
+            log.debug("Ignoring cached decision with unsupported layout");
+            return null;
+        }
+
+        Reader in = new Reader(bytes);
+        in.read();
+        int flags = in.read();
+        ReasonCode reasonCode = ReasonCode.fromCode(in.read());
+        long seconds = unzigzag(in.readVarLong());
+        int nanos = (int) in.readVarLong();
+        long evaluationTimeMs = in.readVarLong();
+        int count = in.readLength();
+
+        List<String> names = new ArrayList<>(count);
+        List<Long> ids = new ArrayList<>(count);
+        if ((flags & FLAG_POLICY_NAMES) != 0) {
+            for (int i = 0; i < count; i++) {
+                names.add(in.readString());
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                long id = in.readVarLong();
+                ids.add(id);
+                names.add(policyName(id));
+            }
+        }
+
+        AccessDecision decision = new AccessDecision();
+        decision.setAllowed((flags & FLAG_ALLOWED) != 0);
+        decision.setDecision(decision.isAllowed() ? "PERMIT" : "DENY");
+        decision.setReasonCode(reasonCode);
+        if ((flags & FLAG_REASON_TEXT) != 0) {
+            decision.setReason(in.readString());
+        } else if (reasonCode != null) {
+            // Encoding guarantees this matches the original reason
+            decision.setReason(reasonCode.describe(names.isEmpty() ? null : names.get(names.size() - 1)));
+        }
+        decision.setAppliedPolicies(names);
+        decision.setAppliedPolicyIds(ids);
+        decision.setEvaluatedAt(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+        decision.setEvaluationTimeMs(evaluationTimeMs);
+        return decision;
+    }
+
+    private String policyName(long id) {
+        // Keys carry the policy epoch, so a decoded decision always matches the current index
+        Policy policy = policyService.getPolicyIndex().findById(id);
+        return policy != null ? policy.getName() : "policy-" + id;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[32];
+        private int position;
+
+        void write(int b) {
+            if (position == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            for (byte b : utf8) {
+                write(b);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int read() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("Truncated cached decision");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        // Counts and lengths can never exceed the bytes left, which also keeps a corrupt value from
+        // sizing a huge allocation
+        int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > buffer.length - position) {
+                throw new IllegalArgumentException("Malformed length in cached decision");
+            }
+            return (int) length;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in cached decision");
+        }
+
+        String readString() {
+            int length = readLength();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -1,15 +1,25 @@
 // PolicyService.java
 package com.gatekeeper.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatekeeper.dto.PolicyUpdateEvent;
 import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
 import com.gatekeeper.repository.PolicyRepository;
+import com.gatekeeper.util.PolicyEvaluator;
+import com.gatekeeper.util.PolicyIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -17,36 +27,213 @@ import java.util.Optional;
 @Slf4j
 public class PolicyService {
 
+    // Shared generation counter of the policy set; every change increments it
+    static final String POLICY_EPOCH_KEY = "gatekeeper:policy-epoch";
+
+    static final String POLICY_UPDATES_TOPIC = "policy-updates";
+
+    // Same order as findActivePoliciesByPriority, so patched and reloaded indexes agree on ties
+    private static final Comparator<Policy> EVALUATION_ORDER = Comparator.comparingInt(Policy::getPriority).reversed()
+            .thenComparing(Policy::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    // What applying a policy update event did to the local policy index
+    public enum EventOutcome {
+        APPLIED, STALE, RESYNCED
+    }
+
     private final PolicyRepository policyRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final PolicyEvaluator policyEvaluator;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    // How long update events may take to arrive before the epoch check stops waiting for them
+    @Value("${gatekeeper.policy-updates.delivery-window:5s}")
+    private Duration deliveryWindow = Duration.ofSeconds(5);
+
+    // Swapped as a whole on every policy change so readers never lock
+    private volatile PolicyIndex policyIndex;
+
+    // Epoch the current index was loaded at. Decision cache keys include it, so advancing the epoch
+    // retires every cached decision at once and the old entries simply expire.
+    private volatile long policyEpoch;
+
+    // Shared epoch the epoch check found ahead of the local one, 0 when caught up, and when it first did
+    private long laggingEpoch;
+    private long laggingSinceNanos;
 
-    @Cacheable(value = "policies", key = "#resource + ':' + #action")
     public List<Policy> getApplicablePolicies(String resource, String action) {
         log.debug("Fetching applicable policies for resource: {} and action: {}", resource, action);
+        return getPolicyIndex().lookup(resource, action);
+    }
+
+    public PolicyIndex getPolicyIndex() {
+        PolicyIndex index = policyIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = policyIndex;
+                if (index == null) {
+                    index = reloadPolicyIndex();
+                }
+            }
+        }
+        return index;
+    }
+
+    public long getPolicyEpoch() {
+        getPolicyIndex();
+        return policyEpoch;
+    }
+
+    public synchronized PolicyIndex reloadPolicyIndex() {
+        // Read the epoch before the policies, so the index is never older than the epoch it is published under
+        long epoch = readPolicyEpoch();
 
         // Get all active policies, prioritized
-        List<Policy> allPolicies = policyRepository.findActivePoliciesByPriority();
+        List<Policy> activePolicies = policyRepository.findActivePoliciesByPriority();
+
+        activePolicies.forEach(this::prepare);
+
+        PolicyIndex index = PolicyIndex.build(activePolicies);
+        policyIndex = index;
+        policyEpoch = Math.max(policyEpoch, epoch);
+        log.info("Policy index rebuilt with {} active policies at epoch {}", index.size(), policyEpoch);
+        return index;
+    }
+
+    public EventOutcome applyPolicyEvent(PolicyUpdateEvent event) {
+        return applyPolicyEvents(List.of(event));
+    }
+
+    // Patches the index with a run of changes in one rebuild, without reading the database. Events at or
+    // below the local epoch are already reflected; a run that skips an epoch means an event was missed,
+    // so the index is reloaded instead, as it is for an explicit RESYNC.
+    public synchronized EventOutcome applyPolicyEvents(List<PolicyUpdateEvent> events) {
+        if (policyIndex == null) {
+            // Nothing loaded yet; the first lookup loads the current state
+            return EventOutcome.STALE;
+        }
+
+        List<PolicyUpdateEvent> ordered = new ArrayList<>(events);
+        ordered.sort(Comparator.comparing(PolicyUpdateEvent::getVersion, Comparator.nullsFirst(Comparator.naturalOrder())));
+        long expected = policyEpoch + 1;
+        List<PolicyUpdateEvent> fresh = new ArrayList<>(ordered.size());
+        for (PolicyUpdateEvent event : ordered) {
+            Long version = event.getVersion();
+            if (version != null && version < expected) {
+                // Already applied, or delivered twice
+                continue;
+            }
+            if (event.getType() == PolicyUpdateEvent.Type.RESYNC) {
+                log.info("Policy resync announced at version {}, reloading policy index", version);
+                reloadPolicyIndex();
+                return EventOutcome.RESYNCED;
+            }
+            if (version == null || version != expected || !isComplete(event)) {
+                log.warn("Policy update at version {} does not follow epoch {}, reloading policy index",
+                        version, expected - 1);
+                reloadPolicyIndex();
+                return EventOutcome.RESYNCED;
+            }
+            fresh.add(event);
+            expected++;
+        }
+        if (fresh.isEmpty()) {
+            return EventOutcome.STALE;
+        }
+
+        Map<Long, Policy> policies = new LinkedHashMap<>();
+        for (Policy policy : policyIndex.getPolicies()) {
+            policies.put(policy.getId(), policy);
+        }
+        for (PolicyUpdateEvent event : fresh) {
+            policies.remove(event.getPolicyId());
+            Policy changed = event.getPolicy();
+            if (event.getType() != PolicyUpdateEvent.Type.DELETE && changed.isActive()) {
+                prepare(changed);
+                policies.put(event.getPolicyId(), changed);
+            }
+        }
+        List<Policy> active = new ArrayList<>(policies.values());
+        active.sort(EVALUATION_ORDER);
+
+        policyIndex = PolicyIndex.build(active);
+        policyEpoch = expected - 1;
+        log.info("Applied {} policy updates, now at epoch {}", fresh.size(), policyEpoch);
+        return EventOutcome.APPLIED;
+    }
 
-        // Filter by resource and action (can be enhanced with pattern matching)
-        return allPolicies.stream()
-                .filter(policy -> isApplicable(policy, resource, action))
-                .toList();
+    private static boolean isComplete(PolicyUpdateEvent event) {
+        return event.getType() != null && event.getPolicyId() != null
+                && (event.getType() == PolicyUpdateEvent.Type.DELETE || event.getPolicy() != null);
     }
 
-    private boolean isApplicable(Policy policy, String resource, String action) {
-        // Simple matching - can be enhanced with regex or wildcards
-        return (policy.getResource() == null || policy.getResource().equals("*") || policy.getResource().equals(resource)) &&
-                (policy.getAction() == null || policy.getAction().equals("*") || policy.getAction().equals(action));
+    private void prepare(Policy policy) {
+        // Compile rules up front so evaluation never parses rule text
+        policyEvaluator.compile(policy);
+
+        // Legacy rows carry no effect; resolve it once here rather than on every request
+        if (policy.getEffect() == null) {
+            policy.setEffect(PolicyEffect.inferFromName(policy.getName()));
+        }
+    }
+
+    // Fallback for update events this instance never receives; PolicyUpdateListener schedules it. A shared
+    // epoch ahead of the local one is normal while events are in flight, so the index is only reloaded
+    // when the local epoch is still behind what an earlier check saw, and that was at least the delivery
+    // window ago.
+    public synchronized void checkPolicyEpoch() {
+        if (policyIndex == null) {
+            return;
+        }
+        long sharedEpoch = readPolicyEpoch();
+        long now = System.nanoTime();
+        if (sharedEpoch <= policyEpoch) {
+            laggingEpoch = 0;
+            return;
+        }
+        if (laggingEpoch == 0 || policyEpoch >= laggingEpoch) {
+            // Newly behind, or the events behind the previous lag have arrived: wait for these as well
+            laggingEpoch = sharedEpoch;
+            laggingSinceNanos = now;
+            return;
+        }
+        if (now - laggingSinceNanos >= deliveryWindow.toNanos()) {
+            log.info("Policy epoch {} not reached after {}, reloading policy index", laggingEpoch, deliveryWindow);
+            laggingEpoch = 0;
+            reloadPolicyIndex();
+        }
+    }
+
+    private long readPolicyEpoch() {
+        try {
+            // INCRBY 0 reads the counter as a number and creates it when missing
+            Long epoch = redisTemplate.opsForValue().increment(POLICY_EPOCH_KEY, 0);
+            return epoch != null ? epoch : policyEpoch;
+        } catch (Exception e) {
+            log.warn("Error reading policy epoch: {}", e.getMessage());
+            return policyEpoch;
+        }
+    }
+
+    // Returns the new epoch, or null when it could not be advanced
+    private Long advancePolicyEpoch() {
+        try {
+            Long epoch = redisTemplate.opsForValue().increment(POLICY_EPOCH_KEY);
+            log.info("Policy epoch advanced to {}", epoch);
+            return epoch;
+        } catch (Exception e) {
+            // Without a new epoch, decisions cached under the old policies live until their TTL
+            log.error("Error advancing policy epoch: ", e);
+            return null;
+        }
     }
 
     public Policy createPolicy(Policy policy) {
         Policy savedPolicy = policyRepository.save(policy);
 
         // Publish policy update to Kafka
-        publishPolicyUpdate("CREATE", savedPolicy);
-
-        // Clear cache
-        clearPolicyCache();
+        publishPolicyUpdate(PolicyUpdateEvent.Type.CREATE, savedPolicy);
 
         return savedPolicy;
     }
@@ -62,14 +249,12 @@ public class PolicyService {
             policy.setAction(policyUpdate.getAction());
             policy.setActive(policyUpdate.isActive());
             policy.setPriority(policyUpdate.getPriority());
+            policy.setEffect(policyUpdate.getEffect());
 
             Policy saved = policyRepository.save(policy);
 
             // Publish policy update
-            publishPolicyUpdate("UPDATE", saved);
-
-            // Clear cache
-            clearPolicyCache();
+            publishPolicyUpdate(PolicyUpdateEvent.Type.UPDATE, saved);
 
             return saved;
         }
@@ -82,29 +267,36 @@ public class PolicyService {
             policyRepository.deleteById(id);
 
             // Publish policy update
-            publishPolicyUpdate("DELETE", policy.get());
-
-            // Clear cache
-            clearPolicyCache();
+            publishPolicyUpdate(PolicyUpdateEvent.Type.DELETE, policy.get());
         }
     }
 
-    private void publishPolicyUpdate(String action, Policy policy) {
-        try {
-            String message = String.format("{\"action\":\"%s\",\"policyId\":%d,\"policyName\":\"%s\"}",
-                    action, policy.getId(), policy.getName());
-            kafkaTemplate.send("policy-updates", message);
-            log.info("Published policy update: {} for policy: {}", action, policy.getName());
-        } catch (Exception e) {
-            log.error("Error publishing policy update: ", e);
-        }
+    // Advances the policy epoch, applies the change to the local index and announces it under that epoch.
+    // All events share one key, so they stay on one partition and arrive in order.
+    private void publishPolicyUpdate(PolicyUpdateEvent.Type type, Policy policy) {
+        PolicyUpdateEvent event = PolicyUpdateEvent.of(type, policy, advancePolicyEpoch());
+        applyPolicyEvent(event);
+        publish(event);
     }
 
-    @CacheEvict(value = "policies", allEntries = true)
+    // Reloads from the database here and tells every other instance to do the same
     public void clearPolicyCache() {
+        PolicyUpdateEvent event = PolicyUpdateEvent.resync(advancePolicyEpoch());
+        reloadPolicyIndex();
+        publish(event);
         log.info("Policy cache cleared");
     }
 
+    private void publish(PolicyUpdateEvent event) {
+        try {
+            kafkaTemplate.send(POLICY_UPDATES_TOPIC, "policies", objectMapper.writeValueAsString(event));
+            log.info("Published policy update: {} for policy: {} at epoch {}",
+                    event.getType(), event.getPolicyId(), event.getVersion());
+        } catch (Exception e) {
+            log.error("Error publishing policy update: ", e);
+        }
+    }
+
     public List<Policy> getAllPolicies() {
         return policyRepository.findAll();
     }
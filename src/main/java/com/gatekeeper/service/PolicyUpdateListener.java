@@ -2,55 +2,180 @@
 package com.gatekeeper.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.gatekeeper.dto.PolicyUpdateEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import java.util.Map;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Policy updates arrive in bursts (bulk edits, migrations). Messages are collected until none has
+// arrived for the quiet window, or the burst is older than the max delay, and the whole burst is then
+// applied with a single index rebuild and a single local cache invalidation.
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PolicyUpdateListener {
 
-    private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
+    private final PolicyService policyService;
+    private final DecisionCache decisionCache;
+    private final long quietWindowNanos;
+    private final long maxDelayNanos;
 
-    @KafkaListener(topics = "policy-updates")
-    public void handlePolicyUpdate(String message) {
-        try {
-            log.info("Received policy update: {}", message);
+    private final Counter received;
+    private final Counter deltaRebuilds;
+    private final Counter resyncRebuilds;
+    private final Counter staleBursts;
+
+    // Applies bursts one at a time, off the consumer thread
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "policy-update-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-            @SuppressWarnings("unchecked")
-            Map<String, Object> update = objectMapper.readValue(message, Map.class);
+    // Current burst, guarded by this
+    private final List<PolicyUpdateEvent> pending = new ArrayList<>();
+    private boolean resyncPending;
+    private long burstStartNanos;
+    private ScheduledFuture<?> scheduledFlush;
 
-            String action = (String) update.get("action");
-            String policyName = (String) update.get("policyName");
+    public PolicyUpdateListener(ObjectMapper objectMapper,
+                                PolicyService policyService,
+                                DecisionCache decisionCache,
+                                MeterRegistry meterRegistry,
+                                @Value("${gatekeeper.policy-updates.quiet-window:250ms}") Duration quietWindow,
+                                @Value("${gatekeeper.policy-updates.max-delay:2s}") Duration maxDelay) {
+        this.objectMapper = objectMapper;
+        this.policyService = policyService;
+        this.decisionCache = decisionCache;
+        this.quietWindowNanos = quietWindow.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
 
-            // Clear relevant cache entries
-            clearPolicyRelatedCache(policyName);
+        this.received = meterRegistry.counter("gatekeeper.policy.updates.received");
+        this.deltaRebuilds = meterRegistry.counter("gatekeeper.policy.updates.rebuilds", "kind", "delta");
+        this.resyncRebuilds = meterRegistry.counter("gatekeeper.policy.updates.rebuilds", "kind", "resync");
+        this.staleBursts = meterRegistry.counter("gatekeeper.policy.updates.stale");
+    }
 
-            log.info("Processed policy update: {} for policy: {}", action, policyName);
+    @KafkaListener(topics = PolicyService.POLICY_UPDATES_TOPIC)
+    public void handlePolicyUpdates(List<String> messages) {
+        log.info("Received {} policy updates", messages.size());
+        received.increment(messages.size());
 
-        } catch (Exception e) {
-            log.error("Error processing policy update: ", e);
+        List<PolicyUpdateEvent> events = new ArrayList<>(messages.size());
+        boolean resync = false;
+        for (String message : messages) {
+            PolicyUpdateEvent event = parse(message);
+            if (event != null) {
+                events.add(event);
+            } else {
+                resync = true;
+            }
         }
+        enqueue(events, resync);
     }
 
-    private void clearPolicyRelatedCache(String policyName) {
+    // Null for messages that cannot be applied as a delta: older formats only say that something changed
+    private PolicyUpdateEvent parse(String message) {
         try {
-            // Clear all access decision cache entries
-            // In production, you might want to be more selective
-            redisTemplate.delete(redisTemplate.keys("access:*"));
+            PolicyUpdateEvent event = objectMapper.readValue(message, PolicyUpdateEvent.class);
+            if (event.getSchemaVersion() == PolicyUpdateEvent.SCHEMA_VERSION) {
+                return event;
+            }
+            log.info("Policy update with schema version {} cannot be applied as a delta", event.getSchemaVersion());
+        } catch (Exception e) {
+            log.warn("Unreadable policy update, reloading policy index: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private synchronized void enqueue(List<PolicyUpdateEvent> events, boolean resync) {
+        long now = System.nanoTime();
+        if (pending.isEmpty() && !resyncPending) {
+            burstStartNanos = now;
+        }
+        pending.addAll(events);
+        resyncPending |= resync;
+
+        // Wait for the burst to go quiet, but never past the max delay from its first message
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        long delay = Math.max(0, Math.min(quietWindowNanos, burstStartNanos + maxDelayNanos - now));
+        scheduledFlush = scheduler.schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+    }
+
+    // True from the first message of a burst until it has been handed to the policy index
+    public synchronized boolean burstPending() {
+        return !pending.isEmpty() || resyncPending || scheduledFlush != null;
+    }
+
+    // The epoch runs ahead of the local index for the whole burst while its events are held back here; a
+    // check then would reload for changes that are about to be applied anyway
+    @Scheduled(fixedDelayString = "${gatekeeper.cache.decision.epoch-check-interval-ms:5000}")
+    public void checkPolicyEpoch() {
+        if (burstPending()) {
+            log.debug("Policy update burst pending, skipping epoch check");
+            return;
+        }
+        policyService.checkPolicyEpoch();
+    }
 
-            // Clear policy cache
-            redisTemplate.delete(redisTemplate.keys("policies::*"));
+    private void flush() {
+        List<PolicyUpdateEvent> events;
+        boolean resync;
+        synchronized (this) {
+            events = new ArrayList<>(pending);
+            resync = resyncPending;
+            pending.clear();
+            resyncPending = false;
+            scheduledFlush = null;
+        }
+        if (events.isEmpty() && !resync) {
+            return;
+        }
+
+        try {
+            PolicyService.EventOutcome outcome;
+            if (resync) {
+                policyService.reloadPolicyIndex();
+                outcome = PolicyService.EventOutcome.RESYNCED;
+            } else {
+                outcome = policyService.applyPolicyEvents(events);
+            }
 
-            log.info("Cleared cache for policy update: {}", policyName);
+            switch (outcome) {
+                case APPLIED -> deltaRebuilds.increment();
+                case RESYNCED -> resyncRebuilds.increment();
+                case STALE -> staleBursts.increment();
+            }
+            if (outcome != PolicyService.EventOutcome.STALE) {
+                // Cached decisions are keyed by epoch, so entries from before the change are no longer read
+                // and expire by TTL. Local entries of the previous epoch are unreachable now; free them right away.
+                decisionCache.invalidateLocal();
+            }
+            log.info("Processed burst of {} policy updates: {}", events.size(), outcome);
 
         } catch (Exception e) {
-            log.warn("Error clearing cache: ", e);
+            // The epoch check in PolicyService catches up with whatever this burst missed
+            log.error("Error processing policy updates: ", e);
         }
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,159 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.model.Policy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Optional startup phase: loads and compiles the active policies, then drives a synthetic workload
+// through AuthorizationService so caches, connections and JIT-compiled evaluation code are warm before
+// real traffic arrives. Reports OUT_OF_SERVICE until done; it is part of the readiness health group.
+@Component
+@Slf4j
+public class StartupWarmup implements HealthIndicator {
+
+    private static final String[] ROLES = {"user", "admin"};
+    private static final String[] LOCATIONS = {"office", "remote"};
+    private static final String[] DEPARTMENTS = {"engineering", "finance"};
+
+    private enum State {
+        PENDING, RUNNING, COMPLETED, FAILED, DISABLED
+    }
+
+    private final PolicyService policyService;
+    private final AuthorizationService authorizationService;
+    private final DecisionCache decisionCache;
+    private final int requests;
+    private final Duration timeout;
+
+    private volatile State state;
+    private volatile int completedRequests;
+    private volatile long durationMs;
+
+    public StartupWarmup(PolicyService policyService,
+                         AuthorizationService authorizationService,
+                         DecisionCache decisionCache,
+                         @Value("${gatekeeper.warmup.enabled:false}") boolean enabled,
+                         @Value("${gatekeeper.warmup.requests:10000}") int requests,
+                         @Value("${gatekeeper.warmup.timeout:60s}") Duration timeout) {
+        this.policyService = policyService;
+        this.authorizationService = authorizationService;
+        this.decisionCache = decisionCache;
+        this.requests = requests;
+        this.timeout = timeout;
+        this.state = enabled ? State.PENDING : State.DISABLED;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (state != State.PENDING) {
+            return;
+        }
+        state = State.RUNNING;
+        Thread thread = new Thread(this::run, "startup-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = switch (state) {
+            case PENDING, RUNNING -> Health.outOfService();
+            // A failed warm-up only costs latency; it must not keep the node out of rotation
+            case COMPLETED, FAILED, DISABLED -> Health.up();
+        };
+        return builder.withDetail("state", state)
+                .withDetail("requests", completedRequests)
+                .withDetail("durationMs", durationMs)
+                .build();
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        try {
+            List<Policy> policies = policyService.reloadPolicyIndex().getPolicies();
+            List<String[]> targets = targetsOf(policies);
+            log.info("Warming up with {} synthetic requests over {} resource/action pairs", requests, targets.size());
+
+            long deadline = start + timeout.toNanos();
+            int i = 0;
+            for (; i < requests && System.nanoTime() < deadline; i++) {
+                authorizationService.authorize(syntheticRequest(targets, i));
+                completedRequests = i + 1;
+            }
+
+            // Keep the synthetic decisions out of the local cache; the Redis copies expire with their TTL
+            decisionCache.invalidateLocal();
+            state = State.COMPLETED;
+            if (i < requests) {
+                log.warn("Warm-up stopped after {} of {} requests at the {} timeout", i, requests, timeout);
+            }
+        } catch (Exception e) {
+            log.error("Warm-up failed, reporting ready without it: ", e);
+            state = State.FAILED;
+        } finally {
+            durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Warm-up finished in {} ms", durationMs);
+        }
+    }
+
+    // One concrete resource/action per policy; wildcards and glob patterns get a sample value that matches
+    private static List<String[]> targetsOf(List<Policy> policies) {
+        Set<List<String>> targets = new LinkedHashSet<>();
+        for (Policy policy : policies) {
+            targets.add(List.of(concrete(policy.getResource()), concrete(policy.getAction())));
+        }
+        if (targets.isEmpty()) {
+            targets.add(List.of("warmup", "read"));
+        }
+        List<String[]> result = new ArrayList<>(targets.size());
+        targets.forEach(target -> result.add(target.toArray(new String[0])));
+        return result;
+    }
+
+    private static String concrete(String pattern) {
+        return pattern == null ? "warmup" : pattern.replace("**", "warmup").replace("*", "warmup").replace('?', 'x');
+    }
+
+    // Cycles through targets and subject profiles. Every other request carries a unique context value, so
+    // the miss path (policy lookup and evaluation) is exercised as often as cache hits.
+    private static AccessRequest syntheticRequest(List<String[]> targets, int i) {
+        String[] target = targets.get(i % targets.size());
+        int profile = i / targets.size();
+
+        Map<String, Object> userAttributes = new HashMap<>();
+        userAttributes.put("role", ROLES[profile % ROLES.length]);
+        userAttributes.put("location", LOCATIONS[(profile / 2) % LOCATIONS.length]);
+        userAttributes.put("department", DEPARTMENTS[(profile / 4) % DEPARTMENTS.length]);
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("department", DEPARTMENTS[profile % DEPARTMENTS.length]);
+        if (i % 2 == 1) {
+            context.put("warmupSequence", i);
+        }
+
+        AccessRequest request = new AccessRequest();
+        request.setUserId("warmup");
+        request.setResource(target[0]);
+        request.setAction(target[1]);
+        request.setClientIp("127.0.0.1");
+        request.setUserAttributes(userAttributes);
+        request.setContext(context);
+        request.setSynthetic(true);
+        return request;
+    }
+}
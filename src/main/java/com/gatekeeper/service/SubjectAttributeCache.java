@@ -0,0 +1,56 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.exception.UserNotFoundException;
+import com.gatekeeper.model.SubjectAttributes;
+import com.gatekeeper.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// Attribute snapshots of authenticated users, so the JWT filter and the authorize endpoints share one
+// lookup instead of each loading the user and its attribute collection from the database.
+// UserService invalidates an entry when it creates that user; logins only touch lastLogin, which is not
+// part of the snapshot, so they leave it cached. The TTL bounds staleness for changes made elsewhere.
+@Service
+@Slf4j
+public class SubjectAttributeCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, SubjectAttributes> subjects;
+
+    public SubjectAttributeCache(UserRepository userRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${gatekeeper.cache.subject.max-size:10000}") long maxSize,
+                                 @Value("${gatekeeper.cache.subject.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.subjects = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, subjects, "subjects");
+    }
+
+    public SubjectAttributes get(String username) {
+        // Unknown users are not cached; the exception propagates out of the loader
+        return subjects.get(username, this::load);
+    }
+
+    public void invalidate(String username) {
+        subjects.invalidate(username);
+    }
+
+    private SubjectAttributes load(String username) {
+        log.debug("Loading subject attributes for {}", username);
+        return userRepository.findByUsername(username)
+                .map(SubjectAttributes::of)
+                .orElseThrow(() -> new UserNotFoundException("User not found: " + username));
+    }
+}
@@ -17,6 +17,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SubjectAttributeCache subjectAttributeCache;
 
     public User getUserByUsername(String username) {
         return userRepository.findByUsername(username)
@@ -36,6 +37,7 @@ public class UserService {
         // Encode password and save user
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         User savedUser = userRepository.save(user);
+        subjectAttributeCache.invalidate(savedUser.getUsername());
 
         log.info("User created successfully: {}", savedUser.getUsername());
         return savedUser;
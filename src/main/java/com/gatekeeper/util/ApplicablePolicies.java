@@ -0,0 +1,56 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Immutable policy list as returned by PolicyIndex.lookup. The position of the last policy of each effect
+// is worked out when the list is built, so combining algorithms need not rescan it on every request.
+public final class ApplicablePolicies extends AbstractList<Policy> implements RandomAccess {
+
+    private final Policy[] policies;
+    private final int lastPermit;
+    private final int lastDeny;
+
+    private ApplicablePolicies(Policy[] policies) {
+        this.policies = policies;
+        this.lastPermit = lastWithEffect(policies, PolicyEffect.PERMIT);
+        this.lastDeny = lastWithEffect(policies, PolicyEffect.DENY);
+    }
+
+    public static ApplicablePolicies of(List<Policy> orderedPolicies) {
+        return new ApplicablePolicies(orderedPolicies.toArray(new Policy[0]));
+    }
+
+    @Override
+    public Policy get(int index) {
+        return policies[index];
+    }
+
+    @Override
+    public int size() {
+        return policies.length;
+    }
+
+    // Position of the last policy with the effect, or -1 when there is none
+    public int lastWithEffect(PolicyEffect effect) {
+        return effect == PolicyEffect.PERMIT ? lastPermit : lastDeny;
+    }
+
+    static int lastWithEffect(List<Policy> policies, PolicyEffect effect) {
+        for (int i = policies.size() - 1; i >= 0; i--) {
+            if (policies.get(i).getEffect() == effect) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastWithEffect(Policy[] policies, PolicyEffect effect) {
+        return lastWithEffect(Arrays.asList(policies), effect);
+    }
+}
@@ -0,0 +1,199 @@
+package com.gatekeeper.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keyed 128-bit fingerprint (SipHash-1-3 with 128-bit output) over request attribute values.
+// Values are fed as tagged 64-bit words straight from the objects, so no strings are built.
+// Maps and sets are order-independent: each entry is fingerprinted on its own and the entry
+// fingerprints are summed. The key is secret, so callers cannot steer two inputs onto one value.
+final class AttributeFingerprint {
+
+    private static final long TAG_NULL = 0;
+    private static final long TAG_STRING = 1;
+    private static final long TAG_BOOLEAN = 2;
+    private static final long TAG_INTEGER = 3;
+    private static final long TAG_FLOAT = 4;
+    private static final long TAG_DECIMAL = 5;
+    private static final long TAG_MAP = 6;
+    private static final long TAG_LIST = 7;
+    private static final long TAG_SET = 8;
+    private static final long TAG_OTHER = 9;
+
+    private final long k0;
+    private final long k1;
+    private long v0;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long words;
+    private long high;
+    private long low;
+
+    // Reused for the entries of nested maps and sets, one instance per nesting level
+    private AttributeFingerprint child;
+
+    AttributeFingerprint(long k0, long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+        reset();
+    }
+
+    private void reset() {
+        v0 = k0 ^ 0x736f6d6570736575L;
+        v1 = k1 ^ 0x646f72616e646f6dL ^ 0xeeL;
+        v2 = k0 ^ 0x6c7967656e657261L;
+        v3 = k1 ^ 0x7465646279746573L;
+        words = 0;
+    }
+
+    private AttributeFingerprint child() {
+        if (child == null) {
+            child = new AttributeFingerprint(k0, k1);
+        } else {
+            child.reset();
+        }
+        return child;
+    }
+
+    AttributeFingerprint add(Object value) {
+        if (value == null) {
+            word(TAG_NULL);
+        } else if (value instanceof String s) {
+            addString(s);
+        } else if (value instanceof Boolean b) {
+            word(TAG_BOOLEAN);
+            word(b ? 1 : 0);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            word(TAG_INTEGER);
+            word(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            word(TAG_FLOAT);
+            word(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            word(TAG_DECIMAL);
+            addString(value.toString());
+        } else if (value instanceof Map<?, ?> map) {
+            addMap(map);
+        } else if (value instanceof Set<?> set) {
+            addUnordered(TAG_SET, set);
+        } else if (value instanceof List<?> list) {
+            word(TAG_LIST);
+            word(list.size());
+            for (Object element : list) {
+                add(element);
+            }
+        } else if (value instanceof Collection<?> collection) {
+            addUnordered(TAG_SET, collection);
+        } else {
+            word(TAG_OTHER);
+            addString(value.getClass().getName());
+            addString(value.toString());
+        }
+        return this;
+    }
+
+    // Completes the fingerprint; high() and low() are valid afterwards and no more values may be added
+    AttributeFingerprint finish() {
+        long b = (words * 8) << 56;
+        v3 ^= b;
+        round();
+        v0 ^= b;
+
+        v2 ^= 0xee;
+        rounds(3);
+        high = v0 ^ v1 ^ v2 ^ v3;
+
+        v1 ^= 0xdd;
+        rounds(3);
+        low = v0 ^ v1 ^ v2 ^ v3;
+        return this;
+    }
+
+    long high() {
+        return high;
+    }
+
+    long low() {
+        return low;
+    }
+
+    private void addString(String s) {
+        int length = s.length();
+        word(TAG_STRING);
+        word(length);
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            word((long) s.charAt(i) << 48 | (long) s.charAt(i + 1) << 32 | (long) s.charAt(i + 2) << 16 | s.charAt(i + 3));
+        }
+        if (i < length) {
+            long last = 0;
+            for (int shift = 48; i < length; i++, shift -= 16) {
+                last |= (long) s.charAt(i) << shift;
+            }
+            word(last);
+        }
+    }
+
+    private void addMap(Map<?, ?> map) {
+        long sumHigh = 0;
+        long sumLow = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            AttributeFingerprint entryFingerprint = child().add(entry.getKey()).add(entry.getValue()).finish();
+            sumHigh += entryFingerprint.high();
+            sumLow += entryFingerprint.low();
+        }
+        word(TAG_MAP);
+        word(map.size());
+        word(sumHigh);
+        word(sumLow);
+    }
+
+    private void addUnordered(long tag, Collection<?> values) {
+        long sumHigh = 0;
+        long sumLow = 0;
+        for (Object value : values) {
+            AttributeFingerprint elementFingerprint = child().add(value).finish();
+            sumHigh += elementFingerprint.high();
+            sumLow += elementFingerprint.low();
+        }
+        word(tag);
+        word(values.size());
+        word(sumHigh);
+        word(sumLow);
+    }
+
+    private void word(long m) {
+        v3 ^= m;
+        round();
+        v0 ^= m;
+        words++;
+    }
+
+    private void rounds(int count) {
+        for (int i = 0; i < count; i++) {
+            round();
+        }
+    }
+
+    private void round() {
+        v0 += v1;
+        v1 = Long.rotateLeft(v1, 13);
+        v1 ^= v0;
+        v0 = Long.rotateLeft(v0, 32);
+        v2 += v3;
+        v3 = Long.rotateLeft(v3, 16);
+        v3 ^= v2;
+        v0 += v3;
+        v3 = Long.rotateLeft(v3, 21);
+        v3 ^= v0;
+        v2 += v1;
+        v1 = Long.rotateLeft(v1, 17);
+        v1 ^= v2;
+        v2 = Long.rotateLeft(v2, 32);
+    }
+}
@@ -0,0 +1,39 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+// How the matching policies of one request combine into a decision. Policies are evaluated in
+// priority order, and evaluation ends at the first match that settles the outcome.
+public enum CombiningAlgorithm {
+    DENY_OVERRIDES,   // any matching deny wins, otherwise any matching permit
+    PERMIT_OVERRIDES, // any matching permit wins, otherwise any matching deny
+    FIRST_APPLICABLE; // the first matching policy wins
+
+    // Whether a match of policies[i] decides the outcome whatever the policies after it return:
+    // a match of the overriding effect, or of the other effect once no overriding policy is left.
+    // Lists from PolicyIndex carry the last overriding position; other lists are scanned once here.
+    public IntPredicate decisiveMatches(List<Policy> policies) {
+        if (this == FIRST_APPLICABLE) {
+            return index -> true;
+        }
+
+        PolicyEffect overriding = this == DENY_OVERRIDES ? PolicyEffect.DENY : PolicyEffect.PERMIT;
+        int last = policies instanceof ApplicablePolicies applicable
+                ? applicable.lastWithEffect(overriding)
+                : ApplicablePolicies.lastWithEffect(policies, overriding);
+        return index -> index >= last || policies.get(index).getEffect() == overriding;
+    }
+
+    // The policy whose effect is the decision, or null when no policy matched
+    public Policy decide(Policy firstMatch, Policy firstPermit, Policy firstDeny) {
+        return switch (this) {
+            case DENY_OVERRIDES -> firstDeny != null ? firstDeny : firstPermit;
+            case PERMIT_OVERRIDES -> firstPermit != null ? firstPermit : firstDeny;
+            case FIRST_APPLICABLE -> firstMatch;
+        };
+    }
+}
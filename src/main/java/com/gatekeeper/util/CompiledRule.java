@@ -0,0 +1,149 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.AccessRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Custom-engine form of a policy's regoRule. The rule text is scanned once when the
+// policy is loaded; evaluation only walks the resulting conditions.
+@Slf4j
+public final class CompiledRule {
+
+    private static final Pattern PACKAGE_DECLARATION = Pattern.compile("^\\s*package\\s+([A-Za-z_][\\w.]*)", Pattern.MULTILINE);
+
+    private final String source;
+    private final boolean adminBypass;
+    private final Condition[] conditions;
+    private final String regoPackage;
+
+    private CompiledRule(String source, boolean adminBypass, List<Condition> conditions, String regoPackage) {
+        this.source = source;
+        this.adminBypass = adminBypass;
+        this.conditions = conditions.toArray(new Condition[0]);
+        this.regoPackage = regoPackage;
+    }
+
+    public static CompiledRule compile(String regoRule) {
+        String rule = regoRule.toLowerCase(Locale.ROOT);
+        List<Condition> conditions = new ArrayList<>();
+
+        if (rule.contains("business_hours")) {
+            conditions.add(Condition.BUSINESS_HOURS);
+        }
+        if (rule.contains("office_location")) {
+            conditions.add(Condition.OFFICE_LOCATION);
+        }
+        // Sensitive resources always need admin, the rule text only decides whether every resource is treated as such
+        conditions.add(rule.contains("sensitive") ? Condition.SENSITIVE_RULE : Condition.SENSITIVE_RESOURCE);
+        if (rule.contains("department")) {
+            conditions.add(Condition.DEPARTMENT_MATCH);
+        }
+
+        // Rules written as full Rego modules are queried in OPA under their own package
+        Matcher packageMatcher = PACKAGE_DECLARATION.matcher(regoRule);
+        String regoPackage = packageMatcher.find() ? packageMatcher.group(1) : null;
+
+        return new CompiledRule(regoRule, rule.contains("admin"), conditions, regoPackage);
+    }
+
+    public boolean evaluate(AccessRequest request) {
+        Map<String, Object> userAttrs = request.getUserAttributes();
+
+        // Admin access - always allow
+        if (adminBypass && "admin".equals(userAttrs.get("role"))) {
+            return true;
+        }
+
+        for (Condition condition : conditions) {
+            if (!condition.test(request, userAttrs)) {
+                log.debug("Access denied - condition {} not satisfied", condition);
+                return false;
+            }
+        }
+
+        // Default allow for basic rules
+        return true;
+    }
+
+    // Same walk as evaluate, but also names what settled the result
+    public Explanation explain(AccessRequest request) {
+        Map<String, Object> userAttrs = request.getUserAttributes();
+        if (adminBypass && "admin".equals(userAttrs.get("role"))) {
+            return new Explanation(true, "admin_bypass");
+        }
+        for (Condition condition : conditions) {
+            if (!condition.test(request, userAttrs)) {
+                return new Explanation(false, condition.name());
+            }
+        }
+        return new Explanation(true, "all_conditions");
+    }
+
+    public record Explanation(boolean allowed, String condition) {
+    }
+
+    // Compiled rules are reused only while the policy still holds the text they were built from
+    public boolean isCompiledFrom(String regoRule) {
+        return source == regoRule || source.equals(regoRule);
+    }
+
+    public boolean hasAdminBypass() {
+        return adminBypass;
+    }
+
+    // Declared Rego package, or null when the rule does not declare one
+    public String getRegoPackage() {
+        return regoPackage;
+    }
+
+    public List<Condition> getConditions() {
+        return List.of(conditions);
+    }
+
+    public enum Condition {
+        BUSINESS_HOURS {
+            @Override
+            boolean test(AccessRequest request, Map<String, Object> userAttrs) {
+                LocalTime now = LocalTime.now();
+                return !now.isBefore(BUSINESS_START) && !now.isAfter(BUSINESS_END);
+            }
+        },
+        OFFICE_LOCATION {
+            @Override
+            boolean test(AccessRequest request, Map<String, Object> userAttrs) {
+                return "office".equals(userAttrs.get("location"));
+            }
+        },
+        SENSITIVE_RULE {
+            @Override
+            boolean test(AccessRequest request, Map<String, Object> userAttrs) {
+                return "admin".equals(userAttrs.get("role"));
+            }
+        },
+        SENSITIVE_RESOURCE {
+            @Override
+            boolean test(AccessRequest request, Map<String, Object> userAttrs) {
+                return !request.getResource().contains("sensitive") || "admin".equals(userAttrs.get("role"));
+            }
+        },
+        DEPARTMENT_MATCH {
+            @Override
+            boolean test(AccessRequest request, Map<String, Object> userAttrs) {
+                Object contextDept = request.getContext().get("department");
+                return contextDept == null || contextDept.equals(userAttrs.get("department"));
+            }
+        };
+
+        private static final LocalTime BUSINESS_START = LocalTime.of(9, 0);
+        private static final LocalTime BUSINESS_END = LocalTime.of(17, 0);
+
+        abstract boolean test(AccessRequest request, Map<String, Object> userAttrs);
+    }
+}
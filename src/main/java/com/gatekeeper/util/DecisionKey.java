@@ -0,0 +1,73 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.AccessRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Cache key of one access decision: the policy epoch plus a 128-bit fingerprint of everything the
+// decision depends on (subject, resource, action and all attribute maps). Stored in Redis as a
+// fixed 31-byte binary key: "access:" + epoch + fingerprint.
+public final class DecisionKey {
+
+    private static final byte[] PREFIX = "access:".getBytes(StandardCharsets.US_ASCII);
+    private static final int LENGTH = PREFIX.length + 3 * Long.BYTES;
+
+    private final long epoch;
+    private final long high;
+    private final long low;
+
+    private DecisionKey(long epoch, long high, long low) {
+        this.epoch = epoch;
+        this.high = high;
+        this.low = low;
+    }
+
+    // k0/k1 form the secret fingerprint key; every node sharing a Redis must use the same one
+    public static DecisionKey of(long epoch, AccessRequest request, long k0, long k1) {
+        AttributeFingerprint fingerprint = new AttributeFingerprint(k0, k1)
+                .add(request.getUserId())
+                .add(request.getResource())
+                .add(request.getAction())
+                .add(request.getContext())
+                .add(request.getUserAttributes())
+                .add(request.getResourceAttributes())
+                .finish();
+        return new DecisionKey(epoch, fingerprint.high(), fingerprint.low());
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(LENGTH)
+                .put(PREFIX)
+                .putLong(epoch)
+                .putLong(high)
+                .putLong(low)
+                .array();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DecisionKey other)) {
+            return false;
+        }
+        return epoch == other.epoch && high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        // The fingerprint is already uniformly distributed
+        return (int) (low ^ (low >>> 32)) ^ (int) epoch;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("access:%d:%016x%016x", epoch, high, low);
+    }
+}
@@ -0,0 +1,46 @@
+package com.gatekeeper.util;
+
+// Glob over a single resource path segment or a whole action: '*' matches any run of characters
+// (never a '/', since segments are matched one at a time) and '?' matches exactly one character.
+final class Glob {
+
+    private final String pattern;
+
+    Glob(String pattern) {
+        this.pattern = pattern;
+    }
+
+    static boolean isGlob(String value) {
+        return value.indexOf('*') >= 0 || value.indexOf('?') >= 0;
+    }
+
+    String pattern() {
+        return pattern;
+    }
+
+    // Linear-time greedy match, backtracking only to the most recent '*'
+    boolean matches(String value) {
+        int p = 0;
+        int v = 0;
+        int star = -1;
+        int mark = 0;
+        while (v < value.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == value.charAt(v))) {
+                p++;
+                v++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                mark = v;
+            } else if (star >= 0) {
+                p = star + 1;
+                v = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+}
@@ -1,29 +1,63 @@
 // Update: src/main/java/com/gatekeeper/util/JwtUtil.java
 package com.gatekeeper.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 @Slf4j
 public class JwtUtil {
 
-    @Value("${gatekeeper.jwt.secret}")
-    private String secret;
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Long expiration;
+    private final Key signingKey;
+    private final JwtParser parser;
 
-    @Value("${gatekeeper.jwt.expiration}")
-    private Long expiration;
+    // Claims of tokens whose signature has already been verified, keyed by a digest of the token.
+    // Entries expire at the token's exp, so a cached token never outlives its validity.
+    private final Cache<String, Claims> verifiedTokens;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtUtil(MeterRegistry meterRegistry,
+                   @Value("${gatekeeper.jwt.secret}") String secret,
+                   @Value("${gatekeeper.jwt.expiration}") Long expiration,
+                   @Value("${gatekeeper.jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new ExpireAtTokenExpiry(TimeUnit.MILLISECONDS.toNanos(expiration)))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
     }
 
     public String generateToken(String username, Map<String, Object> claims) {
@@ -32,10 +66,23 @@ public class JwtUtil {
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    // Verifies signature and expiry once and returns all claims. The returned claims are shared
+    // between callers of the same token and must not be modified.
+    public Claims verifyToken(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims == null) {
+            // Throws JwtException for a bad signature, malformed or expired token
+            claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
     public String getUsernameFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
     }
@@ -45,12 +92,12 @@ public class JwtUtil {
     }
 
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getClaimsFromToken(token);
+        final Claims claims = verifyToken(token);
         return claimsResolver.apply(claims);
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
+        Claims claims = verifyToken(token);
         return (String) claims.get("role");
     }
 
@@ -66,19 +113,45 @@ public class JwtUtil {
 
     public Boolean validateToken(String token, String username) {
         try {
-            String tokenUsername = getUsernameFromToken(token);
-            return tokenUsername.equals(username) && !isTokenExpired(token);
+            Claims claims = verifyToken(token);
+            return claims.getSubject().equals(username) && !isExpired(claims);
         } catch (Exception e) {
             log.warn("Token validation failed: ", e);
             return false;
         }
     }
 
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Tokens without exp are kept for at most the configured token lifetime
+    private record ExpireAtTokenExpiry(long maxNanos) implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxNanos;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
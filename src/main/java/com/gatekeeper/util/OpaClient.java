@@ -0,0 +1,78 @@
+package com.gatekeeper.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Non-blocking client for OPA's data API. One shared HttpClient keeps connections alive between
+// calls and lets any number of queries be in flight at once.
+@Component
+@Slf4j
+public class OpaClient {
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final String opaUrl;
+    private final Duration requestTimeout;
+
+    public OpaClient(ObjectMapper objectMapper,
+                     @Value("${gatekeeper.opa.url:http://localhost:8181}") String opaUrl,
+                     @Value("${gatekeeper.opa.connect-timeout:250ms}") Duration connectTimeout,
+                     @Value("${gatekeeper.opa.request-timeout:500ms}") Duration requestTimeout) {
+        this.objectMapper = objectMapper;
+        this.opaUrl = opaUrl;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    // Resolves to the boolean value of <package>.allow; any failure or non-boolean result resolves to false
+    public CompletableFuture<Boolean> queryAllow(String regoPackage, Map<String, Object> input) {
+        try {
+            String endpoint = opaUrl + "/v1/data/" + regoPackage.replace('.', '/') + "/allow";
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("input", input));
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(response -> parseAllow(regoPackage, response))
+                    .exceptionally(e -> {
+                        log.error("Error querying OPA package {}: {}", regoPackage, e.getMessage());
+                        return false;
+                    });
+        } catch (Exception e) {
+            log.error("Error building OPA query for package {}: ", regoPackage, e);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    private boolean parseAllow(String regoPackage, HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            log.error("OPA returned status {} for package {}", response.statusCode(), regoPackage);
+            return false;
+        }
+        try {
+            JsonNode result = objectMapper.readTree(response.body()).get("result");
+            return result != null && result.isBoolean() && result.booleanValue();
+        } catch (Exception e) {
+            log.error("Error parsing OPA response for package {}: ", regoPackage, e);
+            return false;
+        }
+    }
+}
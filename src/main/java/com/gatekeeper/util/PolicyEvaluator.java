@@ -3,51 +3,128 @@ package com.gatekeeper.util;
 
 import com.gatekeeper.model.AccessRequest;
 import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyTrace;
+import com.gatekeeper.rego.EmbeddedRegoEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 @Component
 @Slf4j
 public class PolicyEvaluator {
 
+    // Where OPA policies are evaluated: over HTTP, in-process, or both with HTTP authoritative
+    public enum OpaMode {
+        HTTP, EMBEDDED, SHADOW
+    }
+
+    private final OpaClient opaClient;
+    private final EmbeddedRegoEngine embeddedRegoEngine;
+    private final MeterRegistry meterRegistry;
+
+    // Per-engine latency: one sample per custom policy evaluation or per OPA package query
+    private final Timer customTimer;
+    private final Timer opaHttpTimer;
+    private final Timer embeddedTimer;
+    private final Timer shadowTimer;
+
     @Value("${gatekeeper.opa.enabled:false}")
     private boolean opaEnabled;
 
-    @Value("${gatekeeper.opa.url:http://localhost:8181}")
-    private String opaUrl;
+    @Value("${gatekeeper.opa.mode:HTTP}")
+    private OpaMode opaMode = OpaMode.HTTP;
+
+    @Value("${gatekeeper.opa.default-package:gatekeeper.authz}")
+    private String defaultOpaPackage = "gatekeeper.authz";
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    public PolicyEvaluator(OpaClient opaClient, EmbeddedRegoEngine embeddedRegoEngine, MeterRegistry meterRegistry) {
+        this.opaClient = opaClient;
+        this.embeddedRegoEngine = embeddedRegoEngine;
+        this.meterRegistry = meterRegistry;
+        this.customTimer = engineTimer(meterRegistry, "custom");
+        this.opaHttpTimer = engineTimer(meterRegistry, "opa_http");
+        this.embeddedTimer = engineTimer(meterRegistry, "embedded");
+        this.shadowTimer = engineTimer(meterRegistry, "shadow");
+    }
 
     public boolean evaluate(Policy policy, AccessRequest request) {
         if (opaEnabled) {
-            return evaluateWithOPA(policy, request);
+            return forRequest(request, List.of(policy)).test(policy);
         } else {
             return evaluateWithCustomEngine(policy, request);
         }
     }
 
-    private boolean evaluateWithOPA(Policy policy, AccessRequest request) {
-        try {
-            Map<String, Object> input = buildOPAInput(request);
+    // Prepares evaluation of the given policies for one request. With OPA enabled, one query per
+    // distinct Rego package is started immediately and all of them run concurrently; every policy in
+    // that package then shares the result instead of making its own round trip.
+    public Predicate<Policy> forRequest(AccessRequest request, List<Policy> policies) {
+        if (!opaEnabled) {
+            return policy -> evaluateWithCustomEngine(policy, request);
+        }
 
-            // Call OPA API
-            String opaEndpoint = opaUrl + "/v1/data/gatekeeper/authz/allow";
-            Map<String, Object> payload = Map.of("input", input);
+        Map<String, Object> input = buildOPAInput(request);
+        Map<String, CompletableFuture<Boolean>> queries = new HashMap<>(4);
+        for (Policy policy : policies) {
+            queries.computeIfAbsent(opaPackageOf(policy), regoPackage -> query(regoPackage, request, input));
+        }
+        log.debug("Started {} OPA queries for {} applicable policies", queries.size(), policies.size());
 
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(opaEndpoint, payload, Map.class);
+        return policy -> evaluateWithOPA(policy, queries, request, input);
+    }
 
-            if (response != null && response.containsKey("result")) {
-                return Boolean.TRUE.equals(response.get("result"));
+    // Evaluates one policy on its own and records what settled it and how long it took. Explain requests
+    // only: OPA policies get a query of their own, so the time reported is that policy's alone.
+    public PolicyTrace explain(Policy policy, AccessRequest request) {
+        PolicyTrace trace = PolicyTrace.of(policy);
+        long start = System.nanoTime();
+        try {
+            if (opaEnabled) {
+                String regoPackage = opaPackageOf(policy);
+                trace.setEngine(opaEngineOf(regoPackage));
+                trace.setCondition("package " + regoPackage);
+                boolean allowed = query(regoPackage, request, buildOPAInput(request)).join();
+                trace.setOutcome(allowed ? PolicyTrace.Outcome.MATCH : PolicyTrace.Outcome.NO_MATCH);
+            } else {
+                trace.setEngine("custom");
+                CompiledRule.Explanation explanation = compile(policy).explain(request);
+                trace.setCondition(explanation.condition());
+                trace.setOutcome(explanation.allowed() ? PolicyTrace.Outcome.MATCH : PolicyTrace.Outcome.NO_MATCH);
             }
+        } catch (Exception e) {
+            log.warn("Error explaining policy {}: {}", policy.getName(), e.getMessage());
+            trace.setOutcome(PolicyTrace.Outcome.ERROR);
+            trace.setCondition(e.getMessage());
+        }
+        trace.setEvaluationTimeNanos(System.nanoTime() - start);
+        return trace;
+    }
 
-            return false;
+    private String opaEngineOf(String regoPackage) {
+        if (opaMode == OpaMode.HTTP || !embeddedRegoEngine.hasPackage(regoPackage)) {
+            return "opa_http";
+        }
+        return opaMode == OpaMode.EMBEDDED ? "embedded" : "shadow";
+    }
+
+    private boolean evaluateWithOPA(Policy policy, Map<String, CompletableFuture<Boolean>> queries,
+                                    AccessRequest request, Map<String, Object> input) {
+        try {
+            String regoPackage = opaPackageOf(policy);
+            CompletableFuture<Boolean> query = queries.get(regoPackage);
+            if (query == null) {
+                // Policy was not part of the prepared set
+                query = query(regoPackage, request, input);
+            }
+            return query.join();
 
         } catch (Exception e) {
             log.error("Error evaluating policy {} with OPA: ", policy.getName(), e);
@@ -55,71 +132,92 @@ public class PolicyEvaluator {
         }
     }
 
-    private boolean evaluateWithCustomEngine(Policy policy, AccessRequest request) {
-        try {
-            String rule = policy.getRegoRule().toLowerCase();
-            Map<String, Object> userAttrs = request.getUserAttributes();
-
-            log.debug("Evaluating policy: {} with rule: {}", policy.getName(), rule);
+    private CompletableFuture<Boolean> query(String regoPackage, AccessRequest request, Map<String, Object> input) {
+        long start = System.nanoTime();
+        if (opaMode == OpaMode.HTTP || !embeddedRegoEngine.hasPackage(regoPackage)) {
+            return timed(opaClient.queryAllow(regoPackage, input), opaHttpTimer, request, start);
+        }
+        if (opaMode == OpaMode.EMBEDDED) {
+            boolean allowed = evaluateEmbedded(regoPackage, input);
+            record(embeddedTimer, request, start);
+            return CompletableFuture.completedFuture(allowed);
+        }
 
-            // Admin access - always allow
-            if (rule.contains("admin") && "admin".equals(userAttrs.get("role"))) {
-                log.debug("Admin access granted for policy: {}", policy.getName());
-                return true;
+        // Shadow: OPA stays authoritative, the embedded result is only compared against it
+        return timed(opaClient.queryAllow(regoPackage, input).thenApply(allowed -> {
+            boolean embedded = evaluateEmbedded(regoPackage, input);
+            boolean match = embedded == allowed;
+            meterRegistry.counter("gatekeeper.opa.shadow", "outcome", match ? "match" : "mismatch").increment();
+            if (!match) {
+                // Identifiers only: the input carries user attributes, which do not belong in logs
+                log.warn("Embedded Rego result {} differs from OPA result {} for package {} (user {}, resource {}, action {})",
+                        embedded, allowed, regoPackage, request.getUserId(), request.getResource(), request.getAction());
             }
+            return allowed;
+        }), shadowTimer, request, start);
+    }
 
-            // Business hours check
-            if (rule.contains("business_hours")) {
-                if (!isBusinessHours()) {
-                    log.debug("Access denied - outside business hours for policy: {}", policy.getName());
-                    return false;
-                }
-            }
+    private static <T> CompletableFuture<T> timed(CompletableFuture<T> query, Timer timer, AccessRequest request, long start) {
+        return query.whenComplete((result, e) -> record(timer, request, start));
+    }
 
-            // Location-based rules
-            if (rule.contains("office_location")) {
-                String userLocation = (String) userAttrs.get("location");
-                if (!"office".equals(userLocation)) {
-                    log.debug("Access denied - not in office location for policy: {}", policy.getName());
-                    return false;
-                }
-            }
+    // Warm-up requests are not timed, so deploys do not add cold-JIT samples to the engine latencies
+    private static void record(Timer timer, AccessRequest request, long start) {
+        if (!request.isSynthetic()) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
 
-            // Sensitive resource check
-            if (rule.contains("sensitive") || request.getResource().contains("sensitive")) {
-                String userRole = (String) userAttrs.get("role");
-                if (!"admin".equals(userRole)) {
-                    log.debug("Access denied - insufficient privileges for sensitive resource");
-                    return false;
-                }
-            }
+    private static Timer engineTimer(MeterRegistry meterRegistry, String engine) {
+        return Timer.builder("gatekeeper.policy.evaluation")
+                .description("Latency of policy evaluation by engine")
+                .tag("engine", engine)
+                .register(meterRegistry);
+    }
 
-            // Department-based access
-            if (rule.contains("department")) {
-                String userDept = (String) userAttrs.get("department");
-                String contextDept = (String) request.getContext().get("department");
+    private boolean evaluateEmbedded(String regoPackage, Map<String, Object> input) {
+        try {
+            return Boolean.TRUE.equals(embeddedRegoEngine.allow(regoPackage, input));
+        } catch (Exception e) {
+            log.error("Error evaluating package {} with the embedded Rego engine: ", regoPackage, e);
+            return false;
+        }
+    }
 
-                if (contextDept != null && !contextDept.equals(userDept)) {
-                    log.debug("Access denied - department mismatch: user={}, required={}", userDept, contextDept);
-                    return false;
-                }
-            }
+    private String opaPackageOf(Policy policy) {
+        try {
+            String regoPackage = compile(policy).getRegoPackage();
+            return regoPackage != null ? regoPackage : defaultOpaPackage;
+        } catch (Exception e) {
+            log.warn("Error reading Rego package of policy {}: {}", policy.getName(), e.getMessage());
+            return defaultOpaPackage;
+        }
+    }
 
-            // Default allow for basic rules
-            log.debug("Access granted for policy: {}", policy.getName());
-            return true;
+    private boolean evaluateWithCustomEngine(Policy policy, AccessRequest request) {
+        long start = System.nanoTime();
+        try {
+            log.debug("Evaluating policy: {}", policy.getName());
+
+            boolean result = compile(policy).evaluate(request);
+            log.debug("Access {} for policy: {}", result ? "granted" : "denied", policy.getName());
+            return result;
 
         } catch (Exception e) {
             log.error("Error evaluating policy {} with custom engine: ", policy.getName(), e);
             return false;
+        } finally {
+            record(customTimer, request, start);
         }
     }
 
-    private boolean isBusinessHours() {
-        LocalTime now = LocalTime.now();
-        LocalTime start = LocalTime.of(9, 0);
-        LocalTime end = LocalTime.of(17, 0);
-        return !now.isBefore(start) && !now.isAfter(end);
+    public CompiledRule compile(Policy policy) {
+        CompiledRule compiled = policy.getCompiledRule();
+        if (compiled == null || !compiled.isCompiledFrom(policy.getRegoRule())) {
+            compiled = CompiledRule.compile(policy.getRegoRule());
+            policy.setCompiledRule(compiled);
+        }
+        return compiled;
     }
 
     private Map<String, Object> buildOPAInput(AccessRequest request) {
@@ -0,0 +1,223 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.Policy;
+
+import java.util.*;
+
+// Immutable snapshot of the active policy set, keyed by resource and action.
+// Every bucket already contains the matching '*' policies merged in priority order,
+// so a lookup is two hash probes and never allocates. Buckets are ApplicablePolicies, which
+// also carry what the combining algorithm needs to know about their effects.
+// Policies whose resource or action is a glob ('*' and '?' within a segment, '**' across segments,
+// e.g. "documents/*/report-*.pdf" or "tenants/acme/**") are kept apart in a resource trie; their
+// matches are merged into the bucket result in priority order.
+public final class PolicyIndex {
+
+    public static final String WILDCARD = "*";
+
+    private static final PolicyIndex EMPTY = new PolicyIndex(List.of());
+
+    private final List<Policy> policies;
+    private final Map<Long, Policy> byId;
+    private final Map<String, ResourceBucket> byResource;
+    private final ResourceBucket anyResource;
+    private final Patterns patterns;
+
+    // Policies must be supplied in evaluation order (priority descending)
+    private PolicyIndex(List<Policy> orderedPolicies) {
+        this.policies = List.copyOf(orderedPolicies);
+        this.byId = new HashMap<>(policies.size() * 2);
+        for (Policy policy : policies) {
+            if (policy.getId() != null) {
+                byId.put(policy.getId(), policy);
+            }
+        }
+
+        List<Policy> plainPolicies = new ArrayList<>(policies.size());
+        Patterns compiledPatterns = null;
+        for (int position = 0; position < policies.size(); position++) {
+            Policy policy = policies.get(position);
+            if (isPattern(policy.getResource()) || isPattern(policy.getAction())) {
+                if (compiledPatterns == null) {
+                    compiledPatterns = new Patterns(policies.size());
+                }
+                compiledPatterns.add(policy, position);
+            } else {
+                plainPolicies.add(policy);
+            }
+        }
+        this.patterns = compiledPatterns;
+
+        // Collect every concrete resource and the concrete actions that can be asked of it
+        Map<String, Set<String>> actionsByResource = new LinkedHashMap<>();
+        Set<String> wildcardResourceActions = new LinkedHashSet<>();
+        for (Policy policy : plainPolicies) {
+            String resource = keyOf(policy.getResource());
+            String action = keyOf(policy.getAction());
+            if (resource.equals(WILDCARD)) {
+                if (!action.equals(WILDCARD)) {
+                    wildcardResourceActions.add(action);
+                }
+            } else {
+                Set<String> actions = actionsByResource.computeIfAbsent(resource, r -> new LinkedHashSet<>());
+                if (!action.equals(WILDCARD)) {
+                    actions.add(action);
+                }
+            }
+        }
+
+        Map<String, BucketBuilder> builders = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : actionsByResource.entrySet()) {
+            Set<String> actions = new LinkedHashSet<>(entry.getValue());
+            actions.addAll(wildcardResourceActions);
+            builders.put(entry.getKey(), new BucketBuilder(actions));
+        }
+        BucketBuilder anyResourceBuilder = new BucketBuilder(wildcardResourceActions);
+
+        // Append each policy to every bucket it matches; iteration order keeps priority order
+        for (Policy policy : plainPolicies) {
+            String resource = keyOf(policy.getResource());
+            String action = keyOf(policy.getAction());
+            if (resource.equals(WILDCARD)) {
+                for (BucketBuilder builder : builders.values()) {
+                    builder.add(action, policy);
+                }
+                anyResourceBuilder.add(action, policy);
+            } else {
+                builders.get(resource).add(action, policy);
+            }
+        }
+
+        Map<String, ResourceBucket> resources = new HashMap<>(builders.size() * 2);
+        builders.forEach((resource, builder) -> resources.put(resource, builder.build()));
+        this.byResource = resources;
+        this.anyResource = anyResourceBuilder.build();
+    }
+
+    public static PolicyIndex build(List<Policy> orderedPolicies) {
+        return new PolicyIndex(orderedPolicies);
+    }
+
+    public static PolicyIndex empty() {
+        return EMPTY;
+    }
+
+    public List<Policy> lookup(String resource, String action) {
+        ResourceBucket bucket = resource != null ? byResource.getOrDefault(resource, anyResource) : anyResource;
+        List<Policy> plain = action != null ? bucket.byAction.getOrDefault(action, bucket.anyAction) : bucket.anyAction;
+        if (patterns == null) {
+            return plain;
+        }
+
+        ResourceTrie.Positions matches = patterns.match(resource, action);
+        if (matches.size() == 0) {
+            return plain;
+        }
+        for (Policy policy : plain) {
+            matches.add(patterns.positionOf(policy));
+        }
+        matches.sortDistinct();
+        List<Policy> merged = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            merged.add(policies.get(matches.get(i)));
+        }
+        return ApplicablePolicies.of(merged);
+    }
+
+    public Policy findById(Long id) {
+        return byId.get(id);
+    }
+
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    public int size() {
+        return policies.size();
+    }
+
+    private static String keyOf(String value) {
+        return value == null ? WILDCARD : value;
+    }
+
+    // A lone '*' keeps its original meaning of "any"; anything else with glob characters is a pattern
+    private static boolean isPattern(String value) {
+        return value != null && !value.equals(WILDCARD) && Glob.isGlob(value);
+    }
+
+    // Policies with a glob resource or action, by position in the ordered policy list
+    private final class Patterns {
+        private final ResourceTrie resources = new ResourceTrie();
+        private final ResourceTrie.Positions anyResource = new ResourceTrie.Positions();
+        private final Glob[] actions;
+        private final Map<Policy, Integer> positions = new IdentityHashMap<>();
+
+        Patterns(int policyCount) {
+            this.actions = new Glob[policyCount];
+            for (int i = 0; i < policies.size(); i++) {
+                positions.put(policies.get(i), i);
+            }
+        }
+
+        void add(Policy policy, int position) {
+            String resource = keyOf(policy.getResource());
+            if (resource.equals(WILDCARD)) {
+                anyResource.add(position);
+            } else {
+                resources.add(resource, position);
+            }
+            String action = keyOf(policy.getAction());
+            if (!action.equals(WILDCARD)) {
+                actions[position] = new Glob(action);
+            }
+        }
+
+        ResourceTrie.Positions match(String resource, String action) {
+            ResourceTrie.Positions matches = new ResourceTrie.Positions();
+            for (int i = 0; i < anyResource.size(); i++) {
+                matches.add(anyResource.get(i));
+            }
+            if (resource != null) {
+                resources.match(resource, matches);
+            }
+            matches.retain(position -> {
+                Glob actionGlob = actions[position];
+                return actionGlob == null || (action != null && actionGlob.matches(action));
+            });
+            return matches;
+        }
+
+        int positionOf(Policy policy) {
+            return positions.get(policy);
+        }
+    }
+
+    private record ResourceBucket(Map<String, List<Policy>> byAction, List<Policy> anyAction) {
+    }
+
+    private static final class BucketBuilder {
+        private final Map<String, List<Policy>> byAction = new HashMap<>();
+        private final List<Policy> anyAction = new ArrayList<>();
+
+        BucketBuilder(Collection<String> actions) {
+            for (String action : actions) {
+                byAction.put(action, new ArrayList<>());
+            }
+        }
+
+        void add(String action, Policy policy) {
+            if (action.equals(WILDCARD)) {
+                anyAction.add(policy);
+                byAction.values().forEach(list -> list.add(policy));
+            } else {
+                byAction.get(action).add(policy);
+            }
+        }
+
+        ResourceBucket build() {
+            Map<String, List<Policy>> actions = new HashMap<>(byAction.size() * 2);
+            byAction.forEach((action, list) -> actions.put(action, ApplicablePolicies.of(list)));
+            return new ResourceBucket(actions, ApplicablePolicies.of(anyAction));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.Policy;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+// Evaluates the applicable policies of one request. Large sets can be spread over a bounded pool, but
+// the results always equal those of an in-order sequential pass: evaluation ends at the first policy
+// (in list order) whose match is decisive, and nothing after it is reported.
+@Component
+@Slf4j
+public class PolicySetEvaluator {
+
+    private final int parallelThreshold;
+    private final ThreadPoolExecutor executor;
+
+    public PolicySetEvaluator(@Value("${gatekeeper.evaluation.parallel.enabled:false}") boolean parallelEnabled,
+                              @Value("${gatekeeper.evaluation.parallel.threshold:32}") int parallelThreshold,
+                              @Value("${gatekeeper.evaluation.parallel.threads:8}") int threads,
+                              @Value("${gatekeeper.evaluation.parallel.queue-capacity:1000}") int queueCapacity) {
+        this.parallelThreshold = parallelThreshold;
+        this.executor = parallelEnabled ? createExecutor(threads, queueCapacity) : null;
+    }
+
+    // One entry per policy, in order: the policy's result, or null when it failed to evaluate or was not
+    // needed because an earlier policy matched decisively. isDecisive is asked by index and must only
+    // depend on the policy list, never on results.
+    public Boolean[] evaluate(List<Policy> policies, Predicate<Policy> evaluation, IntPredicate isDecisive) {
+        if (executor == null || policies.size() < parallelThreshold) {
+            return evaluateSequentially(policies, evaluation, isDecisive);
+        }
+        return evaluateInParallel(policies, evaluation, isDecisive);
+    }
+
+    private Boolean[] evaluateSequentially(List<Policy> policies, Predicate<Policy> evaluation,
+                                           IntPredicate isDecisive) {
+        Boolean[] results = new Boolean[policies.size()];
+        for (int i = 0; i < results.length; i++) {
+            Policy policy = policies.get(i);
+            results[i] = test(policy, evaluation);
+            if (Boolean.TRUE.equals(results[i]) && isDecisive.test(i)) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private Boolean[] evaluateInParallel(List<Policy> policies, Predicate<Policy> evaluation,
+                                         IntPredicate isDecisive) {
+        int size = policies.size();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Boolean>[] futures = new CompletableFuture[size];
+        for (int i = 0; i < size; i++) {
+            Policy policy = policies.get(i);
+            futures[i] = CompletableFuture.supplyAsync(() -> test(policy, evaluation), executor);
+        }
+
+        // As soon as a policy matches decisively, nothing after it can change the outcome: cancel those
+        // tasks so queued ones never run. Tasks before it still complete, as an earlier one may decide first.
+        AtomicInteger firstStop = new AtomicInteger(size);
+        for (int i = 0; i < size; i++) {
+            if (isDecisive.test(i)) {
+                int index = i;
+                futures[i].thenAccept(result -> {
+                    if (Boolean.TRUE.equals(result)) {
+                        cancelAfter(futures, index, firstStop);
+                    }
+                });
+            }
+        }
+
+        Boolean[] results = new Boolean[size];
+        for (int i = 0; i < size; i++) {
+            results[i] = futures[i].join();
+            if (Boolean.TRUE.equals(results[i]) && isDecisive.test(i)) {
+                cancelAfter(futures, i, firstStop);
+                break;
+            }
+        }
+        return results;
+    }
+
+    private static void cancelAfter(CompletableFuture<Boolean>[] futures, int index, AtomicInteger firstStop) {
+        int previous;
+        do {
+            previous = firstStop.get();
+            if (index >= previous) {
+                return;
+            }
+        } while (!firstStop.compareAndSet(previous, index));
+
+        for (int i = index + 1; i < previous; i++) {
+            futures[i].cancel(false);
+        }
+    }
+
+    private static Boolean test(Policy policy, Predicate<Policy> evaluation) {
+        try {
+            return evaluation.test(policy);
+        } catch (Exception e) {
+            log.warn("Error evaluating policy {}: {}", policy.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "policy-eval-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // A saturated pool degrades to evaluating on the request thread rather than failing
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        log.info("Parallel policy evaluation enabled ({} threads, queue capacity {})", threads, queueCapacity);
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.gatekeeper.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+// Resource patterns compiled into a trie of '/'-separated segments. A segment is a literal, a glob
+// (see Glob), or '**', which matches zero or more whole segments. Matching follows one hash probe per
+// literal segment plus the glob siblings at each level, so its cost grows with path depth and the
+// number of distinct globs along the path, not with the number of patterns.
+final class ResourceTrie {
+
+    static final String ANY_SEGMENTS = "**";
+
+    private final Node root = new Node();
+
+    void add(String pattern, int position) {
+        Node node = root;
+        for (String segment : split(pattern)) {
+            node = node.child(segment);
+        }
+        node.addTerminal(position);
+    }
+
+    // Adds the position of every pattern matching the resource; a position may be added more than once
+    void match(String resource, Positions matches) {
+        match(root, split(resource), 0, matches);
+    }
+
+    private static void match(Node node, String[] segments, int index, Positions matches) {
+        if (node.anySegments != null) {
+            for (int next = index; next <= segments.length; next++) {
+                match(node.anySegments, segments, next, matches);
+            }
+        }
+        if (index == segments.length) {
+            matches.addAll(node.terminals, node.terminalCount);
+            return;
+        }
+
+        String segment = segments[index];
+        Node literal = node.literals.get(segment);
+        if (literal != null) {
+            match(literal, segments, index + 1, matches);
+        }
+        for (Node glob : node.globs) {
+            if (glob.glob.matches(segment)) {
+                match(glob, segments, index + 1, matches);
+            }
+        }
+    }
+
+    private static String[] split(String path) {
+        return path.split("/", -1);
+    }
+
+    // Growable list of policy positions, sized by the number of matches rather than the policy count
+    static final class Positions {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+
+        void addAll(int[] positions, int count) {
+            for (int i = 0; i < count; i++) {
+                add(positions[i]);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int i) {
+            return values[i];
+        }
+
+        // Keeps only the positions accepted by the filter
+        void retain(IntPredicate filter) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (filter.test(values[i])) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+        }
+
+        // Sorts into ascending (priority) order and drops duplicates
+        void sortDistinct() {
+            Arrays.sort(values, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || values[distinct - 1] != values[i]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            size = distinct;
+        }
+    }
+
+    private static final class Node {
+        private final Glob glob;
+        private final Map<String, Node> literals = new HashMap<>(4);
+        private final List<Node> globs = new ArrayList<>(0);
+        private Node anySegments;
+        private int[] terminals = new int[0];
+        private int terminalCount;
+
+        Node() {
+            this(null);
+        }
+
+        Node(Glob glob) {
+            this.glob = glob;
+        }
+
+        Node child(String segment) {
+            if (segment.equals(ANY_SEGMENTS)) {
+                if (anySegments == null) {
+                    anySegments = new Node();
+                }
+                return anySegments;
+            }
+            if (!Glob.isGlob(segment)) {
+                return literals.computeIfAbsent(segment, s -> new Node());
+            }
+            for (Node existing : globs) {
+                if (existing.glob.pattern().equals(segment)) {
+                    return existing;
+                }
+            }
+            Node node = new Node(new Glob(segment));
+            globs.add(node);
+            return node;
+        }
+
+        void addTerminal(int position) {
+            if (terminalCount == terminals.length) {
+                terminals = Arrays.copyOf(terminals, Math.max(2, terminalCount * 2));
+            }
+            terminals[terminalCount++] = position;
+        }
+    }
+}
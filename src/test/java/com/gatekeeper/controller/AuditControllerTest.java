@@ -0,0 +1,85 @@
+package com.gatekeeper.controller;
+
+import com.gatekeeper.service.AuditExportService;
+import com.gatekeeper.service.AuditQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditControllerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END = START.plusDays(1);
+    private static final String LINE = "{\"id\":1}\n";
+
+    private final AuditExportService exportService = mock(AuditExportService.class);
+    private final AuditController controller = new AuditController(exportService, mock(AuditQueryService.class));
+
+    @Test
+    void gzipExportIsAGzipFile() throws Exception {
+        givenExportWrites(LINE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.exportAuditLogs(START, END, null, null, null, true, admin(), response);
+
+        assertThat(response.getContentType()).isEqualTo("application/gzip");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("audit-export.ndjson.gz");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(LINE);
+        }
+    }
+
+    @Test
+    void plainExportIsNdjson() throws Exception {
+        givenExportWrites(LINE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.exportAuditLogs(START, END, null, null, null, false, admin(), response);
+
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("audit-export.ndjson\"");
+        assertThat(response.getContentAsString()).isEqualTo(LINE);
+    }
+
+    @Test
+    void exportRequiresAdmin() {
+        Authentication user = new UsernamePasswordAuthenticationToken("bob", null,
+                List.of(new SimpleGrantedAuthority("ROLE_user")));
+
+        assertThatThrownBy(() -> controller.exportAuditLogs(START, END, null, null, null, false, user,
+                new MockHttpServletResponse()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN));
+    }
+
+    private void givenExportWrites(String body) throws Exception {
+        when(exportService.export(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(5);
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+    }
+
+    private static Authentication admin() {
+        return new UsernamePasswordAuthenticationToken("alice", null, List.of(new SimpleGrantedAuthority("ROLE_admin")));
+    }
+}
@@ -0,0 +1,129 @@
+package com.gatekeeper.controller;
+
+import com.gatekeeper.dto.AccessRequestDto;
+import com.gatekeeper.exception.GlobalExceptionHandler;
+import com.gatekeeper.model.AccessDecision;
+import com.gatekeeper.model.SubjectAttributes;
+import com.gatekeeper.service.AuthorizationService;
+import com.gatekeeper.service.SubjectAttributeCache;
+import com.gatekeeper.service.UserService;
+import com.gatekeeper.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerTest {
+
+    private final AuthorizationService authorizationService = mock(AuthorizationService.class);
+    private final SubjectAttributeCache subjectAttributeCache = mock(SubjectAttributeCache.class);
+    private final AuthController controller = new AuthController(authorizationService, mock(UserService.class),
+            mock(JwtUtil.class), subjectAttributeCache);
+
+    private final AccessDecision explained = new AccessDecision();
+    private final AccessDecision authorized = new AccessDecision();
+
+    @BeforeEach
+    void setUp() {
+        when(subjectAttributeCache.get(any())).thenReturn(new SubjectAttributes("alice", "user", Map.of()));
+        when(authorizationService.explain(any())).thenReturn(explained);
+        when(authorizationService.authorize(any())).thenReturn(authorized);
+    }
+
+    @Test
+    void explainIsDisabledByDefault() {
+        assertForbidden(true, admin(), "Explain requests are disabled");
+    }
+
+    @Test
+    void explainRequiresAdmin() {
+        ReflectionTestUtils.setField(controller, "explainEnabled", true);
+
+        assertForbidden(true, user(), "Admin role required");
+    }
+
+    @Test
+    void adminGetsExplainedDecision() {
+        ReflectionTestUtils.setField(controller, "explainEnabled", true);
+
+        assertThat(controller.authorize(request(), true, admin(), new MockHttpServletRequest()).getBody())
+                .isSameAs(explained);
+    }
+
+    @Test
+    void regularAuthorizationIsUnaffected() {
+        assertThat(controller.authorize(request(), false, user(), new MockHttpServletRequest()).getBody())
+                .isSameAs(authorized);
+    }
+
+    @Test
+    void batchWithAnInvalidEntryIsRejected() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(post("/api/auth/authorize/batch")
+                        .principal(user())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"requests": [
+                                  {"resource": "reports", "action": "read"},
+                                  {"resource": " ", "action": "read"},
+                                  {"resource": "reports"},
+                                  null
+                                ]}
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['requests[1].resource']").value("Resource is required"))
+                .andExpect(jsonPath("$.errors['requests[2].action']").value("Action is required"))
+                .andExpect(jsonPath("$.errors['requests[3]']").value("Request entries must not be null"));
+
+        verify(authorizationService, never()).authorizeBatch(any());
+    }
+
+    private void assertForbidden(boolean explain, Authentication authentication, String reason) {
+        assertThatThrownBy(() -> controller.authorize(request(), explain, authentication, new MockHttpServletRequest()))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+                    assertThat(e.getReason()).isEqualTo(reason);
+                });
+        verify(authorizationService, never()).explain(any());
+    }
+
+    private static AccessRequestDto request() {
+        AccessRequestDto dto = new AccessRequestDto();
+        dto.setResource("reports");
+        dto.setAction("read");
+        return dto;
+    }
+
+    private static Authentication admin() {
+        return new UsernamePasswordAuthenticationToken("root", null, List.of(new SimpleGrantedAuthority("ROLE_admin")));
+    }
+
+    private static Authentication user() {
+        return new UsernamePasswordAuthenticationToken("alice", null, List.of(new SimpleGrantedAuthority("ROLE_user")));
+    }
+}
@@ -0,0 +1,22 @@
+package com.gatekeeper.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PolicyEffectTest {
+
+    @Test
+    void infersEffectFromLegacyNames() {
+        assertThat(PolicyEffect.inferFromName("permit-reports")).isEqualTo(PolicyEffect.PERMIT);
+        assertThat(PolicyEffect.inferFromName("Allow managers")).isEqualTo(PolicyEffect.PERMIT);
+        assertThat(PolicyEffect.inferFromName("admin-access")).isEqualTo(PolicyEffect.PERMIT);
+        assertThat(PolicyEffect.inferFromName("DENY-contractors")).isEqualTo(PolicyEffect.DENY);
+        assertThat(PolicyEffect.inferFromName("block-after-hours")).isEqualTo(PolicyEffect.DENY);
+
+        // Permit words are checked first, and anything unrecognised permits as before
+        assertThat(PolicyEffect.inferFromName("deny-unless-access")).isEqualTo(PolicyEffect.PERMIT);
+        assertThat(PolicyEffect.inferFromName("reports-read")).isEqualTo(PolicyEffect.PERMIT);
+        assertThat(PolicyEffect.inferFromName(null)).isEqualTo(PolicyEffect.PERMIT);
+    }
+}
@@ -0,0 +1,51 @@
+package com.gatekeeper.rego;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Pins the embedded engine's results for the shipped gatekeeper.rego. The expectations are what OPA
+// returns for the same input documents, so a difference here is a divergence between the two engines.
+class GatekeeperPolicyCorpusTest {
+
+    private static final String PACKAGE = "gatekeeper.authz";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final EmbeddedRegoEngine engine =
+            new EmbeddedRegoEngine(objectMapper, new String[]{"file:docker/opa-policies/*.rego"});
+
+    record Case(String name, Map<String, Object> input, boolean allow) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static List<Case> corpus() throws IOException {
+        try (InputStream in = GatekeeperPolicyCorpusTest.class.getResourceAsStream("/rego/gatekeeper-authz-corpus.json")) {
+            return objectMapper.readValue(in, new TypeReference<>() {
+            });
+        }
+    }
+
+    @Test
+    void loadsShippedPolicy() {
+        assertTrue(engine.hasPackage(PACKAGE), "packages: " + engine.getPackages());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("corpus")
+    void matchesExpectedDecision(Case corpusCase) {
+        assertEquals(corpusCase.allow(), engine.allow(PACKAGE, corpusCase.input()));
+    }
+}
@@ -0,0 +1,112 @@
+package com.gatekeeper.rego;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The embedded engine covers a subset of Rego. Modules outside it must be rejected at load time with
+// the offending line, never evaluated with a different meaning than OPA would give them.
+class RegoParserTest {
+
+    private static final String HEADER = """
+            package test.authz
+
+            import rego.v1
+
+            default allow := false
+
+            """;
+
+    @Test
+    void parsesSupportedSubset() {
+        RegoModule module = RegoParser.parse(HEADER + """
+                allow if {
+                    input.user.role == "admin"
+                }
+
+                allow if {
+                    role := input.user.role
+                    role != "guest"
+                    not startswith(input.resource, "internal")
+                }
+                """);
+
+        assertEquals("test.authz", module.getPackageName());
+        assertTrue(module.evaluateAllow(Map.of("user", Map.of("role", "admin"))));
+        assertTrue(module.evaluateAllow(Map.of("user", Map.of("role", "user"), "resource", "reports")));
+        assertFalse(module.evaluateAllow(Map.of("user", Map.of("role", "guest"), "resource", "reports")));
+        assertFalse(module.evaluateAllow(Map.of()));
+    }
+
+    @Test
+    void rejectsSome() {
+        assertRejected("line 8: 'some' is not supported", """
+                allow if {
+                    some role in input.user.roles
+                    role == "admin"
+                }
+                """);
+    }
+
+    @Test
+    void rejectsEvery() {
+        assertRejected("line 8: 'every' is not supported", """
+                allow if {
+                    every role in input.user.roles { role == "admin" }
+                }
+                """);
+    }
+
+    @Test
+    void rejectsPartialSetRule() {
+        assertRejected("line 7: partial rules are not supported: deny", """
+                deny[msg] if {
+                    msg := "denied"
+                }
+                """);
+    }
+
+    @Test
+    void rejectsPartialContainsRule() {
+        assertRejected("line 7: partial rules are not supported: deny", """
+                deny contains "denied" if {
+                    input.user.role == "guest"
+                }
+                """);
+    }
+
+    @Test
+    void rejectsElse() {
+        assertRejected("line 9: else is not supported", """
+                allow if {
+                    input.user.role == "admin"
+                } else := false
+                """);
+    }
+
+    @Test
+    void rejectsUnknownFunction() {
+        assertRejected("line 8: unsupported function 'http.send'", """
+                allow if {
+                    http.send(input.url)
+                }
+                """);
+    }
+
+    @Test
+    void rejectsModuleWithoutRules() {
+        RegoParseException e = assertThrows(RegoParseException.class,
+                () -> RegoParser.parse("package test.authz\n"));
+        assertEquals("line 2: module test.authz defines no rules", e.getMessage());
+    }
+
+    private static void assertRejected(String message, String rules) {
+        RegoParseException e = assertThrows(RegoParseException.class, () -> RegoParser.parse(HEADER + rules));
+        assertEquals(message, e.getMessage());
+    }
+}
@@ -0,0 +1,96 @@
+package com.gatekeeper.repository;
+
+import com.gatekeeper.model.AuditLog;
+import com.gatekeeper.service.AuditExportService;
+import com.gatekeeper.service.AuditQueryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class AuditLogRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    private final List<Long> aliceIds = new ArrayList<>();
+
+    // Alice's records share timestamps in runs that straddle the page boundaries; other users'
+    // records and records outside the range sit in between
+    @BeforeEach
+    void setUp() {
+        int[] minutes = {0, 0, 0, 1, 1, 2, 2, 2};
+        for (int minute : minutes) {
+            save("bob", "reports", T0.plusMinutes(minute));
+            aliceIds.add(save("alice", "reports", T0.plusMinutes(minute)));
+        }
+        save("alice", "reports", T0.minusMinutes(1));
+        save("alice", "reports", T0.plusMinutes(10));
+    }
+
+    @Test
+    void keysetPagesCrossTheBoundaryWithoutGapsOrDuplicates() {
+        List<Long> seen = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        int pages = 0;
+        Window<AuditLog> window;
+        do {
+            window = auditLogRepository.findByUserIdAndTimestampBetweenOrderByTimestampAscIdAsc(
+                    "alice", T0, T0.plusMinutes(5), position, Limit.of(3));
+            window.forEach(record -> seen.add(record.getId()));
+            position = window.positionAt(window.size() - 1);
+            pages++;
+        } while (window.hasNext());
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactlyElementsOf(aliceIds);
+    }
+
+    @Test
+    void queryServiceResumesFromItsCursor() {
+        AuditQueryService queryService = new AuditQueryService(auditLogRepository);
+
+        List<Long> seen = new ArrayList<>();
+        AuditExportService.Cursor after = null;
+        AuditQueryService.AuditPage page;
+        do {
+            page = queryService.findByResource("reports", T0, T0.plusMinutes(5), after, 5);
+            page.records().forEach(record -> seen.add(record.getId()));
+            after = page.nextCursor() != null ? AuditExportService.Cursor.decode(page.nextCursor()) : null;
+        } while (after != null);
+
+        // Both users' records, 16 in all, in (timestamp, id) order
+        List<Long> expected = auditLogRepository.findAll().stream()
+                .filter(record -> !record.getTimestamp().isBefore(T0) && !record.getTimestamp().isAfter(T0.plusMinutes(5)))
+                .sorted((a, b) -> a.getTimestamp().equals(b.getTimestamp())
+                        ? a.getId().compareTo(b.getId()) : a.getTimestamp().compareTo(b.getTimestamp()))
+                .map(AuditLog::getId)
+                .toList();
+        assertThat(expected).hasSize(16);
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    private Long save(String userId, String resource, LocalDateTime timestamp) {
+        AuditLog record = new AuditLog();
+        record.setUserId(userId);
+        record.setResource(resource);
+        record.setAction("read");
+        record.setDecision("PERMIT");
+        record.setTimestamp(timestamp);
+        return auditLogRepository.save(record).getId();
+    }
+}
@@ -0,0 +1,81 @@
+package com.gatekeeper.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRollupAggregatorTest {
+
+    private static final LocalDateTime MINUTE = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    private final List<Object[]> rows = new CopyOnWriteArrayList<>();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            rows.addAll(batchArgs);
+            return new int[batchArgs.size()];
+        }
+    };
+    private final AuditRollupAggregator aggregator = new AuditRollupAggregator(jdbcTemplate, new SimpleMeterRegistry(), 1000);
+
+    @Test
+    void writesOneRowPerKeyAndMinute() {
+        aggregator.record("user-1", "reports", "read", "PERMIT", MINUTE.plusSeconds(1));
+        aggregator.record("user-1", "reports", "read", "PERMIT", MINUTE.plusSeconds(59));
+        aggregator.record("user-1", "reports", "read", "DENY", MINUTE.plusSeconds(2));
+        aggregator.record("user-1", "reports", "read", "PERMIT", MINUTE.plusMinutes(1));
+
+        aggregator.flush(MINUTE.plusMinutes(1));
+
+        assertThat(rows).hasSize(2);
+        assertThat(hits()).isEqualTo(3);
+    }
+
+    @Test
+    void incrementsDuringFlushAreWrittenByLaterFlush() throws Exception {
+        int threads = 4;
+        int perThread = 200_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicBoolean started = new AtomicBoolean();
+        for (int t = 0; t < threads; t++) {
+            Thread recorder = new Thread(() -> {
+                started.set(true);
+                for (int i = 0; i < perThread; i++) {
+                    aggregator.record("user-" + (i % 3), "reports", "read", "PERMIT", MINUTE.plusSeconds(i % 60));
+                }
+                done.countDown();
+            });
+            recorder.start();
+        }
+
+        // The bucket is closed but still retained, so every flush drains it while recording continues
+        while (done.getCount() > 0) {
+            if (started.get()) {
+                aggregator.flush(MINUTE.plusMinutes(1));
+            }
+            Thread.onSpinWait();
+        }
+        aggregator.flush(MINUTE.plusMinutes(1));
+
+        assertThat(rows.size()).isGreaterThanOrEqualTo(3);
+        assertThat(hits()).isEqualTo((long) threads * perThread);
+
+        // Once past retention the bucket is removed and nothing more is written
+        int written = rows.size();
+        aggregator.flush(MINUTE.plusMinutes(2));
+        aggregator.flush(MINUTE.plusMinutes(3));
+        assertThat(rows).hasSize(written);
+    }
+
+    private long hits() {
+        return rows.stream().mapToLong(row -> (Long) row[5]).sum();
+    }
+}
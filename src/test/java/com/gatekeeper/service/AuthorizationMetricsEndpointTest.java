@@ -0,0 +1,46 @@
+package com.gatekeeper.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Checks the metrics configuration from application.yml as the running application applies it
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class AuthorizationMetricsEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void prometheusEndpointPublishesLatencyHistograms() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("gatekeeper_authorization_stage_seconds_bucket{")
+                .contains("gatekeeper_authorization_requests_seconds_bucket{")
+                .contains("gatekeeper_policy_evaluation_seconds_bucket{")
+                .contains("gatekeeper_authorization_decisions_total{");
+    }
+
+    @Test
+    void histogramBucketsFollowConfiguredRange() {
+        String body = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        // minimum-expected-value 10us and maximum-expected-value 5s for gatekeeper.authorization
+        assertThat(body).contains("gatekeeper_authorization_stage_seconds_bucket{stage=\"audit\",le=\"1.0E-5\",}")
+                .contains("gatekeeper_authorization_stage_seconds_bucket{stage=\"audit\",le=\"5.0\",}")
+                .doesNotContain("gatekeeper_authorization_stage_seconds_bucket{stage=\"audit\",le=\"1.0E-6\",}");
+    }
+}
@@ -0,0 +1,169 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.model.AccessDecision;
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+import com.gatekeeper.util.DecisionKey;
+import com.gatekeeper.util.PolicyEvaluator;
+import com.gatekeeper.util.PolicySetEvaluator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthorizationServiceTest {
+
+    private final PolicyService policyService = mock(PolicyService.class);
+    private final AuditService auditService = mock(AuditService.class);
+    private final PolicyEvaluator policyEvaluator = mock(PolicyEvaluator.class);
+    private final DecisionCache decisionCache = mock(DecisionCache.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final CountDownLatch evaluating = new CountDownLatch(1);
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    private AuthorizationService service;
+
+    @BeforeEach
+    void setUp() {
+        Policy policy = new Policy();
+        policy.setId(1L);
+        policy.setName("allow-all");
+        policy.setEffect(PolicyEffect.PERMIT);
+
+        when(policyService.getPolicyEpoch()).thenReturn(1L);
+        when(policyService.getApplicablePolicies(anyString(), anyString())).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            evaluating.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(policy);
+        });
+        when(policyEvaluator.forRequest(any(), any())).thenReturn(p -> true);
+        when(decisionCache.keyFor(anyLong(), any())).thenAnswer(invocation ->
+                DecisionKey.of(invocation.getArgument(0), invocation.getArgument(1), 1, 2));
+        when(decisionCache.getAll(anyCollection())).thenReturn(Map.of());
+
+        service = new AuthorizationService(policyService, auditService, policyEvaluator, decisionCache,
+                new PolicySetEvaluator(false, 32, 1, 1), new AuthorizationMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void batchRecordsEachRequestLikeSingleAuthorization() {
+        List<AccessDecision> decisions = service.authorizeBatch(List.of(
+                request("reports"), request("payroll"), request("reports")));
+
+        assertThat(decisions).allMatch(AccessDecision::isAllowed);
+        assertThat(lookups).hasValue(2);
+        assertThat(requests("evaluated")).isEqualTo(2);
+        assertThat(requests("coalesced")).isEqualTo(1);
+        assertThat(decisions("evaluated")).isEqualTo(2);
+        assertThat(decisions("coalesced")).isEqualTo(1);
+        verify(decisionCache).putAll(argThat(written -> written.size() == 2));
+    }
+
+    @Test
+    void syntheticBatchRequestsAreNotCounted() {
+        AccessRequest synthetic = request("reports");
+        synthetic.setSynthetic(true);
+
+        service.authorizeBatch(List.of(synthetic, request("payroll")));
+
+        assertThat(requests("evaluated")).isEqualTo(1);
+        assertThat(decisions("evaluated")).isEqualTo(1);
+    }
+
+    @Test
+    void batchMissJoinsInFlightEvaluation() throws Exception {
+        release = new CountDownLatch(1);
+        Future<AccessDecision> single = executor.submit(() -> service.authorize(request("reports")));
+        assertThat(evaluating.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<List<AccessDecision>> batch = executor.submit(() -> service.authorizeBatch(List.of(request("reports"))));
+        Thread.sleep(100);
+        assertThat(batch.isDone()).isFalse();
+        release.countDown();
+
+        AccessDecision decision = single.get(5, TimeUnit.SECONDS);
+        assertThat(batch.get(5, TimeUnit.SECONDS)).containsExactly(decision);
+        assertThat(lookups).hasValue(1);
+        assertThat(decisions("coalesced")).isEqualTo(1);
+        verify(decisionCache).putAll(Map.of());
+    }
+
+    @Test
+    void singleRequestJoinsBatchEvaluation() throws Exception {
+        release = new CountDownLatch(1);
+        Future<List<AccessDecision>> batch = executor.submit(() -> service.authorizeBatch(List.of(request("reports"))));
+        assertThat(evaluating.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<AccessDecision> single = executor.submit(() -> service.authorize(request("reports")));
+        Thread.sleep(100);
+        assertThat(single.isDone()).isFalse();
+        release.countDown();
+
+        assertThat(batch.get(5, TimeUnit.SECONDS)).containsExactly(single.get(5, TimeUnit.SECONDS));
+        assertThat(lookups).hasValue(1);
+        verify(decisionCache, never()).put(any(), any());
+    }
+
+    @Test
+    void failedBatchEvaluationIsNotShared() {
+        when(policyService.getApplicablePolicies("broken", "read")).thenThrow(new IllegalStateException("index unavailable"));
+
+        List<AccessDecision> decisions = service.authorizeBatch(List.of(request("broken"), request("broken")));
+
+        assertThat(decisions).noneMatch(AccessDecision::isAllowed);
+        assertThat(decisions("error")).isEqualTo(2);
+        verify(decisionCache).putAll(anyMap());
+        assertThat(service.authorize(request("reports")).isAllowed()).isTrue();
+    }
+
+    private long requests(String source) {
+        return meterRegistry.get("gatekeeper.authorization.requests").tag("source", source).timer().count();
+    }
+
+    private double decisions(String source) {
+        return meterRegistry.find("gatekeeper.authorization.decisions").tag("source", source).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private static AccessRequest request(String resource) {
+        AccessRequest request = new AccessRequest();
+        request.setUserId("user-1");
+        request.setResource(resource);
+        request.setAction("read");
+        request.setContext(Map.of());
+        request.setUserAttributes(Map.of());
+        return request;
+    }
+}
@@ -0,0 +1,91 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.model.AccessDecision;
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.model.ReasonCode;
+import com.gatekeeper.util.DecisionKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DecisionCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<byte[], byte[]> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<byte[], byte[]> valueOperations = mock(ValueOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DecisionCodec codec = new DecisionCodec(mock(PolicyService.class));
+    private DecisionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        // Early refresh disabled, so every decoded entry is returned as a hit
+        cache = new DecisionCache(redisTemplate, codec, meterRegistry, 100, Duration.ofMinutes(1),
+                Duration.ofMinutes(5), "test-secret", 0);
+    }
+
+    @Test
+    void corruptEntryIsMissForItsKeyOnly() {
+        DecisionKey good = cache.keyFor(1, request("reports"));
+        DecisionKey truncated = cache.keyFor(1, request("payroll"));
+        DecisionKey garbage = cache.keyFor(1, request("audit"));
+        DecisionKey absent = cache.keyFor(1, request("billing"));
+
+        byte[] encoded = codec.encode(decision(true));
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(
+                encoded,
+                Arrays.copyOf(encoded, encoded.length - 2),
+                new byte[]{(byte) DecisionCodec.VERSION, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff},
+                null));
+
+        Map<DecisionKey, AccessDecision> found = cache.getAll(List.of(good, truncated, garbage, absent));
+
+        assertThat(found).containsOnlyKeys(good);
+        assertThat(found.get(good).isAllowed()).isTrue();
+        assertThat(meterRegistry.counter("gatekeeper.cache.decision.decode_errors").count()).isEqualTo(2);
+    }
+
+    @Test
+    void corruptEntryIsMissOnSingleGet() {
+        DecisionKey key = cache.keyFor(1, request("reports"));
+        when(valueOperations.get(any())).thenReturn(new byte[]{(byte) DecisionCodec.VERSION, 1});
+
+        assertThat(cache.get(key)).isNull();
+        assertThat(meterRegistry.counter("gatekeeper.cache.decision.decode_errors").count()).isEqualTo(1);
+    }
+
+    private static AccessRequest request(String resource) {
+        AccessRequest request = new AccessRequest();
+        request.setUserId("user-1");
+        request.setResource(resource);
+        request.setAction("read");
+        return request;
+    }
+
+    private static AccessDecision decision(boolean allowed) {
+        AccessDecision decision = new AccessDecision();
+        decision.setAllowed(allowed);
+        decision.setDecision(allowed ? "PERMIT" : "DENY");
+        decision.setReasonCode(allowed ? ReasonCode.POLICY_PERMIT : ReasonCode.NO_PERMIT);
+        decision.setReason("test");
+        decision.setAppliedPolicies(List.of("reports-read"));
+        decision.setEvaluatedAt(LocalDateTime.now());
+        return decision;
+    }
+}
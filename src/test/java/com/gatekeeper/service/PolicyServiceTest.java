@@ -0,0 +1,195 @@
+package com.gatekeeper.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatekeeper.dto.PolicyUpdateEvent;
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+import com.gatekeeper.repository.PolicyRepository;
+import com.gatekeeper.service.PolicyService.EventOutcome;
+import com.gatekeeper.util.PolicyEvaluator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PolicyServiceTest {
+
+    private final PolicyRepository policyRepository = mock(PolicyRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    // Shared epoch in Redis and the policies in the database
+    private final AtomicLong sharedEpoch = new AtomicLong();
+    private final List<Policy> database = new ArrayList<>();
+
+    private PolicyService service;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment(PolicyService.POLICY_EPOCH_KEY, 0)).thenAnswer(invocation -> sharedEpoch.get());
+        when(valueOperations.increment(PolicyService.POLICY_EPOCH_KEY)).thenAnswer(invocation -> sharedEpoch.incrementAndGet());
+        when(policyRepository.findActivePoliciesByPriority()).thenAnswer(invocation -> new ArrayList<>(database));
+
+        service = new PolicyService(policyRepository, kafkaTemplate, mock(PolicyEvaluator.class), redisTemplate, objectMapper);
+        ReflectionTestUtils.setField(service, "deliveryWindow", Duration.ZERO);
+
+        database.add(policy(1L, "reports-read", 10));
+        service.getPolicyIndex();
+    }
+
+    @Test
+    void appliesInOrderEventsAndSkipsDuplicates() {
+        Policy created = policy(2L, "payroll-read", 20);
+        PolicyUpdateEvent create = PolicyUpdateEvent.of(PolicyUpdateEvent.Type.CREATE, created, 1L);
+
+        assertThat(service.applyPolicyEvent(create)).isEqualTo(EventOutcome.APPLIED);
+        assertThat(names()).containsExactly("payroll-read", "reports-read");
+        assertThat(service.getPolicyEpoch()).isEqualTo(1);
+
+        // Redelivered
+        assertThat(service.applyPolicyEvent(create)).isEqualTo(EventOutcome.STALE);
+
+        // A run arriving out of order is applied in version order, with one rebuild
+        Policy renamed = policy(2L, "payroll-write", 5);
+        assertThat(service.applyPolicyEvents(List.of(
+                PolicyUpdateEvent.of(PolicyUpdateEvent.Type.DELETE, database.get(0), 3L),
+                PolicyUpdateEvent.of(PolicyUpdateEvent.Type.UPDATE, renamed, 2L),
+                create))).isEqualTo(EventOutcome.APPLIED);
+        assertThat(names()).containsExactly("payroll-write");
+        assertThat(service.getPolicyEpoch()).isEqualTo(3);
+
+        // Only the initial load read the database
+        verify(policyRepository, times(1)).findActivePoliciesByPriority();
+    }
+
+    @Test
+    void gapReloadsFromDatabase() {
+        database.add(policy(3L, "audit-read", 30));
+        sharedEpoch.set(2);
+
+        PolicyUpdateEvent skipsOne = PolicyUpdateEvent.of(PolicyUpdateEvent.Type.CREATE, database.get(1), 2L);
+        assertThat(service.applyPolicyEvent(skipsOne)).isEqualTo(EventOutcome.RESYNCED);
+        assertThat(names()).containsExactlyInAnyOrder("audit-read", "reports-read");
+        assertThat(service.getPolicyEpoch()).isEqualTo(2);
+
+        // The missed event arrives late and is already reflected
+        PolicyUpdateEvent missed = PolicyUpdateEvent.of(PolicyUpdateEvent.Type.CREATE, database.get(1), 1L);
+        assertThat(service.applyPolicyEvent(missed)).isEqualTo(EventOutcome.STALE);
+        verify(policyRepository, times(2)).findActivePoliciesByPriority();
+    }
+
+    @Test
+    void clearPolicyCachePublishesResync() throws Exception {
+        service.clearPolicyCache();
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq(PolicyService.POLICY_UPDATES_TOPIC), eq("policies"), message.capture());
+        PolicyUpdateEvent event = objectMapper.readValue(message.getValue(), PolicyUpdateEvent.class);
+        assertThat(event.getType()).isEqualTo(PolicyUpdateEvent.Type.RESYNC);
+        assertThat(event.getVersion()).isEqualTo(1);
+        assertThat(service.getPolicyEpoch()).isEqualTo(1);
+
+        // A receiver at the previous epoch reloads, even though the event itself follows on directly
+        PolicyService receiver = new PolicyService(policyRepository, kafkaTemplate, mock(PolicyEvaluator.class),
+                redisTemplate, objectMapper);
+        sharedEpoch.set(0);
+        receiver.getPolicyIndex();
+        sharedEpoch.set(1);
+        database.add(policy(3L, "audit-read", 30));
+
+        assertThat(receiver.applyPolicyEvent(event)).isEqualTo(EventOutcome.RESYNCED);
+        assertThat(receiver.getPolicyIndex().size()).isEqualTo(2);
+        assertThat(receiver.getPolicyEpoch()).isEqualTo(1);
+        assertThat(receiver.applyPolicyEvent(event)).isEqualTo(EventOutcome.STALE);
+    }
+
+    @Test
+    void epochCheckWaitsForEventsInFlight() {
+        // Another instance published two changes; the events are still on their way
+        sharedEpoch.set(2);
+        service.checkPolicyEpoch();
+        verify(policyRepository, times(1)).findActivePoliciesByPriority();
+
+        // They arrive before the next check
+        service.applyPolicyEvents(List.of(
+                PolicyUpdateEvent.of(PolicyUpdateEvent.Type.CREATE, policy(2L, "payroll-read", 20), 1L),
+                PolicyUpdateEvent.of(PolicyUpdateEvent.Type.CREATE, policy(3L, "audit-read", 30), 2L)));
+        service.checkPolicyEpoch();
+        verify(policyRepository, times(1)).findActivePoliciesByPriority();
+
+        // The next change is never delivered: seen at one check, still missing at the next
+        sharedEpoch.set(3);
+        service.checkPolicyEpoch();
+        verify(policyRepository, times(1)).findActivePoliciesByPriority();
+        service.checkPolicyEpoch();
+        verify(policyRepository, times(2)).findActivePoliciesByPriority();
+        assertThat(service.getPolicyEpoch()).isEqualTo(3);
+    }
+
+    @Test
+    void epochCheckWaitsForDeliveryWindow() {
+        ReflectionTestUtils.setField(service, "deliveryWindow", Duration.ofHours(1));
+        sharedEpoch.set(1);
+
+        service.checkPolicyEpoch();
+        service.checkPolicyEpoch();
+        service.checkPolicyEpoch();
+
+        verify(policyRepository, times(1)).findActivePoliciesByPriority();
+    }
+
+    private List<String> names() {
+        return service.getPolicyIndex().getPolicies().stream().map(Policy::getName).toList();
+    }
+
+    @Test
+    void legacyRowsGetTheirEffectFromTheName() {
+        Policy deny = policy(2L, "deny-contractors", 20);
+        Policy permit = policy(3L, "payroll-read", 5);
+        Policy stored = policy(4L, "block-nothing", 1);
+        deny.setEffect(null);
+        permit.setEffect(null);
+        database.add(0, deny);
+        database.add(permit);
+        database.add(stored);
+
+        service.reloadPolicyIndex();
+
+        assertThat(deny.getEffect()).isEqualTo(PolicyEffect.DENY);
+        assertThat(permit.getEffect()).isEqualTo(PolicyEffect.PERMIT);
+        // A stored effect is never overridden by the name
+        assertThat(stored.getEffect()).isEqualTo(PolicyEffect.PERMIT);
+    }
+
+    private static Policy policy(Long id, String name, int priority) {
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setName(name);
+        policy.setResource("*");
+        policy.setAction("*");
+        policy.setPriority(priority);
+        policy.setEffect(PolicyEffect.PERMIT);
+        return policy;
+    }
+}
@@ -0,0 +1,121 @@
+package com.gatekeeper.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatekeeper.dto.PolicyUpdateEvent;
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.service.PolicyService.EventOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PolicyUpdateListenerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final PolicyService policyService = mock(PolicyService.class);
+    private final DecisionCache decisionCache = mock(DecisionCache.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PolicyUpdateListener listener;
+
+    @BeforeEach
+    void setUp() {
+        when(policyService.applyPolicyEvents(anyList())).thenReturn(EventOutcome.APPLIED);
+        listener = new PolicyUpdateListener(objectMapper, policyService, decisionCache, meterRegistry,
+                Duration.ofMillis(200), Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void burstIsAppliedOnceAndEpochCheckWaitsForIt() throws Exception {
+        int events = 50;
+        for (int batch = 0; batch < 5; batch++) {
+            List<String> messages = new ArrayList<>();
+            for (int i = 0; i < events / 5; i++) {
+                messages.add(message(batch * events / 5 + i + 1));
+            }
+            listener.handlePolicyUpdates(messages);
+
+            assertThat(listener.burstPending()).isTrue();
+            listener.checkPolicyEpoch();
+        }
+        verify(policyService, never()).checkPolicyEpoch();
+
+        verify(decisionCache, timeout(2000)).invalidateLocal();
+        ArgumentCaptor<List<PolicyUpdateEvent>> applied = ArgumentCaptor.forClass(List.class);
+        verify(policyService, times(1)).applyPolicyEvents(applied.capture());
+        assertThat(applied.getValue()).extracting(PolicyUpdateEvent::getVersion)
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, events).boxed().toList());
+        verify(policyService, never()).reloadPolicyIndex();
+        assertThat(meterRegistry.counter("gatekeeper.policy.updates.received").count()).isEqualTo(events);
+        assertThat(meterRegistry.counter("gatekeeper.policy.updates.rebuilds", "kind", "delta").count()).isEqualTo(1);
+
+        // Once the burst is applied the epoch check runs again
+        assertThat(listener.burstPending()).isFalse();
+        listener.checkPolicyEpoch();
+        verify(policyService).checkPolicyEpoch();
+
+        Thread.sleep(300);
+        verify(policyService, times(1)).applyPolicyEvents(anyList());
+        verify(decisionCache, times(1)).invalidateLocal();
+    }
+
+    @Test
+    void unreadableMessageTurnsBurstIntoOneReload() {
+        listener.handlePolicyUpdates(List.of(message(1), "policy-updated", message(2)));
+
+        verify(decisionCache, timeout(2000)).invalidateLocal();
+        verify(policyService, times(1)).reloadPolicyIndex();
+        verify(policyService, never()).applyPolicyEvents(anyList());
+        assertThat(meterRegistry.counter("gatekeeper.policy.updates.rebuilds", "kind", "resync").count()).isEqualTo(1);
+    }
+
+    @Test
+    void staleBurstKeepsLocalCache() throws Exception {
+        // applyPolicyEvents is synchronized, so waiting on it with verify(timeout) would block the flush
+        CountDownLatch applied = new CountDownLatch(1);
+        when(policyService.applyPolicyEvents(anyList())).thenAnswer(invocation -> {
+            applied.countDown();
+            return EventOutcome.STALE;
+        });
+
+        listener.handlePolicyUpdates(List.of(message(1)));
+
+        assertThat(applied.await(2, TimeUnit.SECONDS)).isTrue();
+        verify(decisionCache, after(300).never()).invalidateLocal();
+        assertThat(meterRegistry.counter("gatekeeper.policy.updates.stale").count()).isEqualTo(1);
+    }
+
+    private String message(long version) {
+        Policy policy = new Policy();
+        policy.setId(version);
+        policy.setName("policy-" + version);
+        try {
+            return objectMapper.writeValueAsString(PolicyUpdateEvent.of(PolicyUpdateEvent.Type.CREATE, policy, version));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
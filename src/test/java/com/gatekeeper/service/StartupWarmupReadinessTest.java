@@ -0,0 +1,147 @@
+package com.gatekeeper.service;
+
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+import com.gatekeeper.repository.PolicyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The readiness group from application.yml must keep the node out of rotation while the warm-up runs,
+// and the warm-up must leave no trace in the shared cache tier or the latency histograms
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"gatekeeper.warmup.enabled=true", "gatekeeper.warmup.requests=5"})
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class StartupWarmupReadinessTest {
+
+    // Holds the warm-up's first Redis read until the test lets it through
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+    @SuppressWarnings("unchecked")
+    private static final ValueOperations<byte[], byte[]> DECISIONS = mock(ValueOperations.class);
+
+    @TestConfiguration
+    static class BlockingDecisionTier {
+
+        @Bean
+        @Primary
+        @SuppressWarnings("unchecked")
+        RedisTemplate<byte[], byte[]> blockingDecisionRedisTemplate() {
+            RedisTemplate<byte[], byte[]> template = mock(RedisTemplate.class);
+            when(template.opsForValue()).thenReturn(DECISIONS);
+            when(DECISIONS.get(any())).thenAnswer(invocation -> {
+                RELEASE.await(30, TimeUnit.SECONDS);
+                return null;
+            });
+            return template;
+        }
+
+        // Runs before ApplicationReadyEvent, so the warm-up evaluates a real policy
+        @Bean
+        CommandLineRunner seedPolicy(PolicyRepository policyRepository) {
+            return args -> {
+                Policy policy = new Policy();
+                policy.setName("reports-read");
+                policy.setResource("reports");
+                policy.setAction("read");
+                policy.setRegoRule("department");
+                policy.setEffect(PolicyEffect.PERMIT);
+                policyRepository.save(policy);
+            };
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private RedisTemplate<byte[], byte[]> decisionRedisTemplate;
+
+    @Autowired
+    private AuthorizationService authorizationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterAll
+    static void release() {
+        RELEASE.countDown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readinessIsOutOfServiceUntilWarmupFinishes() throws Exception {
+        ResponseEntity<String> warming = restTemplate.getForEntity("/actuator/health/readiness", String.class);
+        assertThat(warming.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(warming.getBody()).contains("\"status\":\"OUT_OF_SERVICE\"").contains("\"state\":\"RUNNING\"");
+
+        // The process itself is healthy; only readiness waits
+        assertThat(restTemplate.getForEntity("/actuator/health/liveness", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        RELEASE.countDown();
+
+        ResponseEntity<String> ready = warming;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (ready.getStatusCode() != HttpStatus.OK && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            ready = restTemplate.getForEntity("/actuator/health/readiness", String.class);
+        }
+        assertThat(ready.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ready.getBody()).contains("\"status\":\"UP\"").contains("\"state\":\"COMPLETED\"")
+                .contains("\"requests\":5");
+
+        // Synthetic decisions never reach Redis, and no stage or engine timing was recorded
+        verify(DECISIONS, never()).set(any(), any(), any(Duration.class));
+        verify(decisionRedisTemplate, never()).executePipelined(any(SessionCallback.class));
+        assertThat(recorded("gatekeeper.authorization.stage")).isZero();
+        assertThat(recorded("gatekeeper.policy.evaluation")).isZero();
+
+        // A real request is cached in Redis and timed
+        AccessRequest request = new AccessRequest();
+        request.setUserId("alice");
+        request.setResource("reports");
+        request.setAction("read");
+        request.setUserAttributes(Map.of("role", "user", "department", "engineering"));
+        request.setContext(Map.of("department", "engineering"));
+        authorizationService.authorize(request);
+
+        verify(DECISIONS, times(1)).set(any(), any(), any(Duration.class));
+        assertThat(recorded("gatekeeper.authorization.stage")).isPositive();
+        assertThat(recorded("gatekeeper.policy.evaluation")).isEqualTo(1);
+    }
+
+    private long recorded(String timer) {
+        return meterRegistry.find(timer).timers().stream().mapToLong(Timer::count).sum();
+    }
+}
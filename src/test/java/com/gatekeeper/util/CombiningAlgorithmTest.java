@@ -0,0 +1,139 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CombiningAlgorithmTest {
+
+    private final Policy permit = policy("permit", PolicyEffect.PERMIT);
+    private final Policy deny = policy("deny", PolicyEffect.DENY);
+
+    @Test
+    void decidePicksTheWinningPolicy() {
+        assertThat(CombiningAlgorithm.DENY_OVERRIDES.decide(permit, permit, deny)).isSameAs(deny);
+        assertThat(CombiningAlgorithm.DENY_OVERRIDES.decide(permit, permit, null)).isSameAs(permit);
+        assertThat(CombiningAlgorithm.PERMIT_OVERRIDES.decide(deny, permit, deny)).isSameAs(permit);
+        assertThat(CombiningAlgorithm.PERMIT_OVERRIDES.decide(deny, null, deny)).isSameAs(deny);
+        assertThat(CombiningAlgorithm.FIRST_APPLICABLE.decide(deny, permit, deny)).isSameAs(deny);
+        assertThat(CombiningAlgorithm.FIRST_APPLICABLE.decide(permit, permit, deny)).isSameAs(permit);
+
+        for (CombiningAlgorithm algorithm : CombiningAlgorithm.values()) {
+            assertThat(algorithm.decide(null, null, null)).isNull();
+        }
+    }
+
+    @Test
+    void decisiveMatchesFollowTheLastOverridingPolicy() {
+        // permit, deny, permit, permit
+        List<Policy> policies = List.of(policy("p0", PolicyEffect.PERMIT), policy("d1", PolicyEffect.DENY),
+                policy("p2", PolicyEffect.PERMIT), policy("p3", PolicyEffect.PERMIT));
+
+        assertThat(decisive(CombiningAlgorithm.DENY_OVERRIDES, policies)).containsExactly(false, true, true, true);
+        assertThat(decisive(CombiningAlgorithm.PERMIT_OVERRIDES, policies)).containsExactly(true, false, true, true);
+        assertThat(decisive(CombiningAlgorithm.FIRST_APPLICABLE, policies)).containsExactly(true, true, true, true);
+
+        // Without an overriding policy every match settles the outcome
+        List<Policy> permitsOnly = List.of(policy("p0", PolicyEffect.PERMIT), policy("p1", PolicyEffect.PERMIT));
+        assertThat(decisive(CombiningAlgorithm.DENY_OVERRIDES, permitsOnly)).containsExactly(true, true);
+        assertThat(decisive(CombiningAlgorithm.PERMIT_OVERRIDES, permitsOnly)).containsExactly(true, true);
+    }
+
+    @Test
+    void precomputedPositionsAgreeWithAScan() {
+        List<Policy> policies = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            policies.add(policy("p" + i, i % 3 == 1 || i % 5 == 0 ? PolicyEffect.DENY : PolicyEffect.PERMIT));
+        }
+        ApplicablePolicies applicable = ApplicablePolicies.of(policies);
+
+        assertThat(applicable).containsExactlyElementsOf(policies);
+        assertThat(applicable.lastWithEffect(PolicyEffect.DENY)).isEqualTo(10);
+        assertThat(applicable.lastWithEffect(PolicyEffect.PERMIT)).isEqualTo(11);
+        assertThat(ApplicablePolicies.of(List.of()).lastWithEffect(PolicyEffect.DENY)).isEqualTo(-1);
+        for (CombiningAlgorithm algorithm : CombiningAlgorithm.values()) {
+            assertThat(decisive(algorithm, applicable)).isEqualTo(decisive(algorithm, policies));
+        }
+    }
+
+    @Test
+    void evaluationStopsAtTheFirstDecisiveMatch() {
+        Policy p0 = policy("p0", PolicyEffect.PERMIT);
+        Policy d1 = policy("d1", PolicyEffect.DENY);
+        Policy p2 = policy("p2", PolicyEffect.PERMIT);
+        Policy d3 = policy("d3", PolicyEffect.DENY);
+        Policy p4 = policy("p4", PolicyEffect.PERMIT);
+        List<Policy> policies = PolicyIndex.build(List.of(p0, d1, p2, d3, p4)).lookup("reports", "read");
+        assertThat(policies).isInstanceOf(ApplicablePolicies.class);
+        Set<Policy> matching = Set.of(p0, p2, d3, p4);
+
+        // A permit cannot settle deny-overrides while a deny may still follow
+        Evaluation denyOverrides = evaluate(CombiningAlgorithm.DENY_OVERRIDES, policies, matching);
+        assertThat(denyOverrides.evaluated()).isEqualTo(4);
+        assertThat(denyOverrides.decision()).isSameAs(d3);
+
+        Evaluation permitOverrides = evaluate(CombiningAlgorithm.PERMIT_OVERRIDES, policies, matching);
+        assertThat(permitOverrides.evaluated()).isEqualTo(1);
+        assertThat(permitOverrides.decision()).isSameAs(p0);
+
+        Evaluation firstApplicable = evaluate(CombiningAlgorithm.FIRST_APPLICABLE, policies, Set.of(d1, p2));
+        assertThat(firstApplicable.evaluated()).isEqualTo(2);
+        assertThat(firstApplicable.decision()).isSameAs(d1);
+
+        // Past the last deny, deny-overrides settles on the next permit
+        Evaluation lateDeny = evaluate(CombiningAlgorithm.DENY_OVERRIDES, policies, Set.of(p4));
+        assertThat(lateDeny.evaluated()).isEqualTo(5);
+        assertThat(lateDeny.decision()).isSameAs(p4);
+    }
+
+    private static List<Boolean> decisive(CombiningAlgorithm algorithm, List<Policy> policies) {
+        IntPredicate isDecisive = algorithm.decisiveMatches(policies);
+        return IntStream.range(0, policies.size()).mapToObj(isDecisive::test).toList();
+    }
+
+    // The sequential loop of PolicySetEvaluator followed by the decision of AuthorizationService
+    private static Evaluation evaluate(CombiningAlgorithm algorithm, List<Policy> policies, Set<Policy> matching) {
+        IntPredicate isDecisive = algorithm.decisiveMatches(policies);
+        Policy firstMatch = null;
+        Policy firstPermit = null;
+        Policy firstDeny = null;
+        int evaluated = 0;
+        for (int i = 0; i < policies.size(); i++) {
+            Policy policy = policies.get(i);
+            evaluated++;
+            if (!matching.contains(policy)) {
+                continue;
+            }
+            firstMatch = firstMatch != null ? firstMatch : policy;
+            if (policy.getEffect() == PolicyEffect.PERMIT && firstPermit == null) {
+                firstPermit = policy;
+            } else if (policy.getEffect() == PolicyEffect.DENY && firstDeny == null) {
+                firstDeny = policy;
+            }
+            if (isDecisive.test(i)) {
+                break;
+            }
+        }
+        return new Evaluation(evaluated, algorithm.decide(firstMatch, firstPermit, firstDeny));
+    }
+
+    private record Evaluation(int evaluated, Policy decision) {
+    }
+
+    private static Policy policy(String name, PolicyEffect effect) {
+        Policy policy = new Policy();
+        policy.setName(name);
+        policy.setResource("reports");
+        policy.setAction("read");
+        policy.setEffect(effect);
+        return policy;
+    }
+}
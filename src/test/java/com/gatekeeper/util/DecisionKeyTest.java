@@ -0,0 +1,117 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.AccessRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionKeyTest {
+
+    private static final long K0 = 0x0706050403020100L;
+    private static final long K1 = 0x0f0e0d0c0b0a0908L;
+
+    // Contexts that collided under the former Objects.hash key: swapped keys and values, entries moved
+    // between keys, "1" vs 1, list order, and boundaries shifted between key and value
+    @Test
+    void distinctContextsGetDistinctKeys() {
+        List<Map<String, Object>> variants = List.of(
+                Map.of("a", "b", "c", "d"),
+                Map.of("a", "d", "c", "b"),
+                Map.of("b", "a", "d", "c"),
+                Map.of("a", "b"),
+                Map.of("c", "d"),
+                Map.of("a", 1),
+                Map.of("a", "1"),
+                Map.of("a", 1.0),
+                Map.of("a", List.of("b", "c")),
+                Map.of("a", List.of("c", "b")),
+                Map.of("ab", ""),
+                Map.of("a", "b\u0000"),
+                Map.of());
+
+        Set<DecisionKey> keys = new HashSet<>();
+        for (Map<String, Object> context : variants) {
+            AccessRequest request = request("user-1", "r", "read");
+            request.setContext(context);
+            assertThat(keys.add(key(1, request))).as("collision for context %s", context).isTrue();
+        }
+    }
+
+    @Test
+    void distinctRequestFieldsGetDistinctKeys() {
+        Set<DecisionKey> keys = new HashSet<>();
+        assertThat(keys.add(key(1, request("user-1", "r", "read")))).isTrue();
+        assertThat(keys.add(key(1, request("user-1r", "", "read")))).isTrue();
+        assertThat(keys.add(key(1, request("user-1", "read", "r")))).isTrue();
+        assertThat(keys.add(key(1, request("user-2", "r", "read")))).isTrue();
+        assertThat(keys.add(key(1, request("user-1", "r", "write")))).isTrue();
+        assertThat(keys.add(key(1, request(null, "r", "read")))).isTrue();
+    }
+
+    @Test
+    void attributeMapMatters() {
+        AccessRequest inContext = request("user-1", "r", "read");
+        inContext.setContext(Map.of("department", "sales"));
+        AccessRequest inUser = request("user-1", "r", "read");
+        inUser.setUserAttributes(Map.of("department", "sales"));
+        AccessRequest inResource = request("user-1", "r", "read");
+        inResource.setResourceAttributes(Map.of("department", "sales"));
+
+        assertThat(Set.of(key(1, inContext), key(1, inUser), key(1, inResource))).hasSize(3);
+    }
+
+    @Test
+    void mapOrderDoesNotMatter() {
+        Map<String, Object> forward = new LinkedHashMap<>();
+        Map<String, Object> backward = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            forward.put("k" + i, i);
+            backward.put("k" + (19 - i), 19 - i);
+        }
+        AccessRequest first = request("user-1", "r", "read");
+        first.setContext(forward);
+        AccessRequest second = request("user-1", "r", "read");
+        second.setContext(backward);
+
+        assertThat(key(1, first)).isEqualTo(key(1, second));
+        assertThat(key(1, first).hashCode()).isEqualTo(key(1, second).hashCode());
+    }
+
+    @Test
+    void epochAndFingerprintKeyAreSeparateNamespaces() {
+        AccessRequest request = request("user-1", "r", "read");
+
+        assertThat(key(1, request)).isNotEqualTo(key(2, request));
+        assertThat(DecisionKey.of(1, request, K0, K1)).isNotEqualTo(DecisionKey.of(1, request, K1, K0));
+    }
+
+    @Test
+    void redisKeyIsFixedLengthAndCarriesEpoch() {
+        DecisionKey key = key(42, request("user-1", "r", "read"));
+
+        assertThat(key.getEpoch()).isEqualTo(42);
+        assertThat(key.toBytes()).hasSize(31).startsWith("access:".getBytes());
+        assertThat(key.toString()).startsWith("access:42:").hasSize("access:42:".length() + 32);
+    }
+
+    private static DecisionKey key(long epoch, AccessRequest request) {
+        return DecisionKey.of(epoch, request, K0, K1);
+    }
+
+    private static AccessRequest request(String userId, String resource, String action) {
+        AccessRequest request = new AccessRequest();
+        request.setUserId(userId);
+        request.setResource(resource);
+        request.setAction(action);
+        request.setContext(Map.of());
+        request.setUserAttributes(Map.of());
+        request.setResourceAttributes(Map.of());
+        return request;
+    }
+}
@@ -0,0 +1,157 @@
+package com.gatekeeper.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatekeeper.model.AccessRequest;
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.rego.EmbeddedRegoEngine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpaClientTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> requestedPaths = new CopyOnWriteArrayList<>();
+    private final Map<String, Stub> stubs = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private OpaClient client;
+
+    private record Stub(int status, String body, long delayMs) {
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        client = new OpaClient(objectMapper, "http://127.0.0.1:" + server.getAddress().getPort(),
+                Duration.ofMillis(250), Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requestedPaths.add(path);
+        exchange.getRequestBody().readAllBytes();
+        Stub stub = stubs.getOrDefault(path, new Stub(404, "{}", 0));
+        try {
+            Thread.sleep(stub.delayMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = stub.body().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(stub.status(), body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    @Test
+    void resolvesBooleanResultOfPackageAllowRule() throws Exception {
+        stubs.put("/v1/data/gatekeeper/authz/allow", new Stub(200, "{\"result\":true}", 0));
+        stubs.put("/v1/data/gatekeeper/deny/allow", new Stub(200, "{\"result\":false}", 0));
+
+        assertThat(client.queryAllow("gatekeeper.authz", Map.of("action", "read")).get(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(client.queryAllow("gatekeeper.deny", Map.of("action", "read")).get(1, TimeUnit.SECONDS)).isFalse();
+    }
+
+    @Test
+    void treatsMissingOrNonBooleanResultAsDeny() throws Exception {
+        stubs.put("/v1/data/undefined/allow", new Stub(200, "{}", 0));
+        stubs.put("/v1/data/text/allow", new Stub(200, "{\"result\":\"true\"}", 0));
+        stubs.put("/v1/data/garbage/allow", new Stub(200, "not json", 0));
+
+        assertThat(client.queryAllow("undefined", Map.of()).get(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(client.queryAllow("text", Map.of()).get(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(client.queryAllow("garbage", Map.of()).get(1, TimeUnit.SECONDS)).isFalse();
+    }
+
+    @Test
+    void mapsNon2xxResponsesToDeny() throws Exception {
+        stubs.put("/v1/data/broken/allow", new Stub(500, "{\"result\":true}", 0));
+        stubs.put("/v1/data/forbidden/allow", new Stub(403, "{\"result\":true}", 0));
+
+        assertThat(client.queryAllow("broken", Map.of()).get(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(client.queryAllow("forbidden", Map.of()).get(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(client.queryAllow("unknown", Map.of()).get(1, TimeUnit.SECONDS)).isFalse();
+    }
+
+    @Test
+    void mapsRequestTimeoutToDeny() throws Exception {
+        stubs.put("/v1/data/slow/allow", new Stub(200, "{\"result\":true}", 2000));
+
+        long start = System.nanoTime();
+        boolean allowed = client.queryAllow("slow", Map.of()).get(2, TimeUnit.SECONDS);
+
+        assertThat(allowed).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+    }
+
+    @Test
+    void mapsConnectionFailureToDeny() throws Exception {
+        server.stop(0);
+
+        assertThat(client.queryAllow("gatekeeper.authz", Map.of()).get(2, TimeUnit.SECONDS)).isFalse();
+    }
+
+    @Test
+    void queriesEachPackageOncePerRequest() {
+        stubs.put("/v1/data/gatekeeper/authz/allow", new Stub(200, "{\"result\":true}", 50));
+        stubs.put("/v1/data/reports/allow", new Stub(200, "{\"result\":false}", 50));
+
+        PolicyEvaluator evaluator = new PolicyEvaluator(client,
+                new EmbeddedRegoEngine(objectMapper, new String[0]), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(evaluator, "opaEnabled", true);
+
+        List<Policy> policies = List.of(
+                policy(1, "allow if role is admin"),
+                policy(2, "package reports\nallow { true }"),
+                policy(3, "allow if department matches"),
+                policy(4, "package reports\nallow { false }"));
+        Predicate<Policy> evaluation = evaluator.forRequest(request(), policies);
+
+        assertThat(policies).extracting(evaluation::test).containsExactly(true, false, true, false);
+        assertThat(requestedPaths).containsExactlyInAnyOrder(
+                "/v1/data/gatekeeper/authz/allow", "/v1/data/reports/allow");
+    }
+
+    private static Policy policy(long id, String rule) {
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setName("policy-" + id);
+        policy.setRegoRule(rule);
+        return policy;
+    }
+
+    private static AccessRequest request() {
+        AccessRequest request = new AccessRequest();
+        request.setUserId("alice");
+        request.setResource("reports");
+        request.setAction("read");
+        request.setUserAttributes(Map.of("role", "user"));
+        request.setContext(Map.of());
+        return request;
+    }
+}
@@ -0,0 +1,176 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Differential tests against a linear filter: the filter PolicyService used before the index, with
+// globs matched by a separate regex-based reference implementation
+class PolicyIndexTest {
+
+    private static final String[] RESOURCE_PATTERNS = {
+            null, "*", "documents", "documents/reports", "documents/reports/q1.pdf", "tenants/acme",
+            "documents/*/q1.pdf", "documents/re?orts/*", "documents/**", "documents/**/q1.pdf",
+            "**", "tenants/*/users/**", "tenants/**/users/*", "**/q1.pdf", "documents/*"};
+    private static final String[] ACTION_PATTERNS = {null, "*", "read", "write", "re*", "?rite", "*e"};
+
+    private static final String[] RESOURCES = {
+            null, "", "documents", "documents/reports", "documents/reports/q1.pdf", "documents/records/q1.pdf",
+            "documents/a/b/q1.pdf", "documents/q1.pdf", "tenants/acme", "tenants/acme/users",
+            "tenants/acme/users/alice", "tenants/acme/users/alice/keys", "tenants/x/y/users/bob", "q1.pdf", "other"};
+    private static final String[] ACTIONS = {null, "", "read", "write", "review", "rewrite", "delete"};
+
+    @Test
+    void globMatchesLikeTheReference() {
+        String[] patterns = {"*", "?", "re*", "*e", "?rite", "r*d", "q?.*", "*.pdf", "a*b*c", "**", ""};
+        String[] values = {"", "r", "read", "write", "review", "rewrite", "q1.pdf", "q12.pdf", "abc", "aXbYc", "ac"};
+        for (String pattern : patterns) {
+            Glob glob = new Glob(pattern);
+            for (String value : values) {
+                assertThat(glob.matches(value))
+                        .as("%s ~ %s", pattern, value)
+                        .isEqualTo(globRegex(pattern).matcher(value).matches());
+            }
+        }
+    }
+
+    @Test
+    void trieMatchesLikeTheReference() {
+        ResourceTrie trie = new ResourceTrie();
+        List<String> patterns = new ArrayList<>();
+        for (String pattern : RESOURCE_PATTERNS) {
+            if (pattern != null && !pattern.equals(PolicyIndex.WILDCARD)) {
+                trie.add(pattern, patterns.size());
+                patterns.add(pattern);
+            }
+        }
+
+        for (String resource : RESOURCES) {
+            if (resource == null) {
+                continue;
+            }
+            ResourceTrie.Positions matches = new ResourceTrie.Positions();
+            trie.match(resource, matches);
+            matches.sortDistinct();
+            TreeSet<String> matched = new TreeSet<>();
+            for (int i = 0; i < matches.size(); i++) {
+                matched.add(patterns.get(matches.get(i)));
+            }
+
+            TreeSet<String> expected = new TreeSet<>();
+            for (String pattern : patterns) {
+                if (resourceMatches(pattern, resource)) {
+                    expected.add(pattern);
+                }
+            }
+            assertThat(matched).as(resource).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void doubleStarMatchesZeroOrMoreSegments() {
+        assertThat(lookupNames(List.of(policy(1L, "tree", "documents/**", "read", 1)), "documents", "read"))
+                .containsExactly("tree");
+        assertThat(lookupNames(List.of(policy(1L, "tree", "documents/**/q1.pdf", "read", 1)), "documents/q1.pdf", "read"))
+                .containsExactly("tree");
+        assertThat(lookupNames(List.of(policy(1L, "tree", "documents/**/q1.pdf", "read", 1)), "documents/a/b/q1.pdf", "read"))
+                .containsExactly("tree");
+        assertThat(lookupNames(List.of(policy(1L, "one", "documents/*", "read", 1)), "documents", "read"))
+                .isEmpty();
+        assertThat(lookupNames(List.of(policy(1L, "one", "documents/*", "read", 1)), "documents/a/b", "read"))
+                .isEmpty();
+    }
+
+    @Test
+    void lookupMatchesLinearFilter() {
+        Random random = new Random(17);
+        for (int round = 0; round < 300; round++) {
+            List<Policy> policies = new ArrayList<>();
+            int count = 1 + random.nextInt(30);
+            for (int i = 0; i < count; i++) {
+                policies.add(policy((long) i, "policy-" + i,
+                        RESOURCE_PATTERNS[random.nextInt(RESOURCE_PATTERNS.length)],
+                        ACTION_PATTERNS[random.nextInt(ACTION_PATTERNS.length)],
+                        // Few distinct priorities, so ties are ordered by id as in PolicyService
+                        random.nextInt(5)));
+            }
+            policies.sort(Comparator.comparingInt(Policy::getPriority).reversed().thenComparing(Policy::getId));
+            PolicyIndex index = PolicyIndex.build(policies);
+
+            for (String resource : RESOURCES) {
+                for (String action : ACTIONS) {
+                    List<Policy> expected = policies.stream()
+                            .filter(policy -> isApplicable(policy, resource, action))
+                            .toList();
+                    assertThat(index.lookup(resource, action))
+                            .as("round %d, %s %s", round, resource, action)
+                            .containsExactlyElementsOf(expected);
+                }
+            }
+        }
+    }
+
+    private static List<String> lookupNames(List<Policy> policies, String resource, String action) {
+        return PolicyIndex.build(policies).lookup(resource, action).stream().map(Policy::getName).toList();
+    }
+
+    // The former PolicyService filter, extended with the glob semantics
+    private static boolean isApplicable(Policy policy, String resource, String action) {
+        return (policy.getResource() == null || policy.getResource().equals("*") || policy.getResource().equals(resource)
+                || (resource != null && resourceMatches(policy.getResource(), resource)))
+                && (policy.getAction() == null || policy.getAction().equals("*") || policy.getAction().equals(action)
+                || (action != null && globRegex(policy.getAction()).matcher(action).matches()));
+    }
+
+    private static boolean resourceMatches(String pattern, String resource) {
+        return segmentsMatch(pattern.split("/", -1), 0, resource.split("/", -1), 0);
+    }
+
+    private static boolean segmentsMatch(String[] pattern, int p, String[] segments, int s) {
+        if (p == pattern.length) {
+            return s == segments.length;
+        }
+        if (pattern[p].equals("**")) {
+            for (int next = s; next <= segments.length; next++) {
+                if (segmentsMatch(pattern, p + 1, segments, next)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return s < segments.length && globRegex(pattern[p]).matcher(segments[s]).matches()
+                && segmentsMatch(pattern, p + 1, segments, s + 1);
+    }
+
+    private static Pattern globRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static Policy policy(Long id, String name, String resource, String action, int priority) {
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setName(name);
+        policy.setResource(resource);
+        policy.setAction(action);
+        policy.setPriority(priority);
+        policy.setEffect(PolicyEffect.PERMIT);
+        return policy;
+    }
+}
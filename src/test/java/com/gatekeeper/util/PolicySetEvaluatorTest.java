@@ -0,0 +1,102 @@
+package com.gatekeeper.util;
+
+import com.gatekeeper.model.Policy;
+import com.gatekeeper.model.PolicyEffect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PolicySetEvaluatorTest {
+
+    private enum Outcome { MATCH, NO_MATCH, ERROR }
+
+    private final PolicySetEvaluator sequential = new PolicySetEvaluator(false, 32, 1, 1);
+    // Every set goes to a small pool with a short queue, so caller-runs fallback is exercised too
+    private final PolicySetEvaluator parallel = new PolicySetEvaluator(true, 1, 4, 8);
+
+    @AfterEach
+    void shutdown() {
+        parallel.shutdown();
+    }
+
+    @Test
+    void parallelEvaluationMatchesSequential() {
+        Random random = new Random(15);
+        for (int round = 0; round < 400; round++) {
+            List<Policy> policies = new ArrayList<>();
+            Map<Policy, Outcome> outcomes = new HashMap<>();
+            int count = 1 + random.nextInt(60);
+            for (int i = 0; i < count; i++) {
+                Policy policy = policy("policy-" + i, random.nextBoolean() ? PolicyEffect.PERMIT : PolicyEffect.DENY);
+                policies.add(policy);
+                // Mostly not applicable, as in practice; some matches and the odd evaluation error
+                int roll = random.nextInt(10);
+                outcomes.put(policy, roll < 2 ? Outcome.MATCH : roll < 9 ? Outcome.NO_MATCH : Outcome.ERROR);
+            }
+            Predicate<Policy> evaluation = policy -> {
+                // Vary completion order across the pool
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ThreadLocalRandom.current().nextInt(50)));
+                return switch (outcomes.get(policy)) {
+                    case MATCH -> true;
+                    case NO_MATCH -> false;
+                    case ERROR -> throw new IllegalStateException("broken rule");
+                };
+            };
+
+            for (CombiningAlgorithm algorithm : CombiningAlgorithm.values()) {
+                Result expected = decide(algorithm, policies,
+                        sequential.evaluate(policies, evaluation, algorithm.decisiveMatches(policies)));
+                Result actual = decide(algorithm, policies,
+                        parallel.evaluate(policies, evaluation, algorithm.decisiveMatches(policies)));
+                assertThat(actual).as("round %d, %s", round, algorithm).isEqualTo(expected);
+            }
+        }
+    }
+
+    // What AuthorizationService builds its decision from
+    private static Result decide(CombiningAlgorithm algorithm, List<Policy> policies, Boolean[] results) {
+        List<String> applied = new ArrayList<>();
+        Policy firstMatch = null;
+        Policy firstPermit = null;
+        Policy firstDeny = null;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                continue;
+            }
+            Policy policy = policies.get(i);
+            applied.add(policy.getName());
+            if (results[i]) {
+                firstMatch = firstMatch != null ? firstMatch : policy;
+                if (policy.getEffect() == PolicyEffect.DENY) {
+                    firstDeny = firstDeny != null ? firstDeny : policy;
+                } else {
+                    firstPermit = firstPermit != null ? firstPermit : policy;
+                }
+            }
+        }
+        Policy deciding = algorithm.decide(firstMatch, firstPermit, firstDeny);
+        String decision = deciding == null ? "NOT_APPLICABLE" : deciding.getEffect() + " by " + deciding.getName();
+        return new Result(decision, applied);
+    }
+
+    private record Result(String decision, List<String> appliedPolicies) {
+    }
+
+    private static Policy policy(String name, PolicyEffect effect) {
+        Policy policy = new Policy();
+        policy.setName(name);
+        policy.setEffect(effect);
+        return policy;
+    }
+}